@@ -0,0 +1,155 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.config.CartStoreConfig;
+import com.alopez.store.carts.exceptions.CartConflictException;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Runs JpaCartStore against MySQL with the Flyway schema, so the compare-and-set on carts.version is exercised
+ by real concurrent transactions rather than mocks.
+ */
+@DataJpaTest(properties = "carts.store.maxRetries=50")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JpaCartStore.class)
+@EnableConfigurationProperties(CartStoreConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class JpaCartStoreIT {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    private static final Long PRODUCT_ID = 1L;
+
+    @Autowired
+    private JpaCartStore cartStore;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void modify_WithConcurrentWriters_RetriesUntilEveryChangeIsApplied() throws Exception {
+        // Given
+        var writers = 8;
+        var cartId = cartStore.create().getId();
+
+        // When
+        var results = race(writers, () -> cartStore.modify(cartId, cart -> {
+            cart.addItem(productRepository.findById(PRODUCT_ID).orElseThrow());
+            return null;
+        }));
+
+        // Then
+        for (var result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        cartStore.read(cartId, cart -> {
+            assertEquals(Integer.valueOf(writers), cart.getItem(PRODUCT_ID).getQuantity());
+            assertEquals(Long.valueOf(writers), cart.getVersion());
+            return null;
+        });
+    }
+
+    @Test
+    void modify_WithConcurrentWritersOnSameVersion_AppliesOnlyOne() throws Exception {
+        // Given
+        var writers = 8;
+        var cartId = cartStore.create().getId();
+
+        // When
+        var results = race(writers, () -> cartStore.modify(cartId, 0L, cart -> {
+            cart.addItem(productRepository.findById(PRODUCT_ID).orElseThrow());
+            return null;
+        }));
+
+        // Then
+        var applied = 0;
+        for (var result : results) {
+            try {
+                result.get(30, TimeUnit.SECONDS);
+                applied++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(CartConflictException.class, e.getCause());
+            }
+        }
+        assertEquals(1, applied);
+        cartStore.read(cartId, cart -> {
+            assertEquals(Integer.valueOf(1), cart.getItem(PRODUCT_ID).getQuantity());
+            assertEquals(Long.valueOf(1), cart.getVersion());
+            return null;
+        });
+    }
+
+    @Test
+    void modify_WithStaleVersion_ThrowsCartConflictExceptionAndKeepsCart() {
+        // Given
+        var cartId = cartStore.create().getId();
+        cartStore.modify(cartId, 0L, cart -> {
+            cart.addItem(productRepository.findById(PRODUCT_ID).orElseThrow());
+            return null;
+        });
+
+        // When & Then
+        assertThrows(CartConflictException.class, () -> cartStore.modify(cartId, 0L, cart -> {
+            cart.clearCart();
+            return null;
+        }));
+        cartStore.read(cartId, cart -> {
+            assertEquals(Integer.valueOf(1), cart.getItem(PRODUCT_ID).getQuantity());
+            assertEquals(Long.valueOf(1), cart.getVersion());
+            return null;
+        });
+    }
+
+    // Starts every writer at once, each on its own thread and so in its own transaction.
+    private List<Future<Object>> race(int writers, Callable<Object> write) throws InterruptedException {
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(writers);
+        try {
+            var results = new ArrayList<Future<Object>>();
+            for (var i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return write.call();
+                }));
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
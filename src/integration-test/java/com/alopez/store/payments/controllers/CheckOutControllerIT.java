@@ -9,7 +9,10 @@ import java.util.UUID;
 import com.alopez.store.payments.dtos.CheckOutRequest;
 import com.alopez.store.payments.dtos.CheckOutResponse;
 import com.alopez.store.payments.dtos.WebhookRequest;
+import com.alopez.store.payments.exceptions.IdempotencyKeyInProgressException;
+import com.alopez.store.payments.exceptions.IdempotencyKeyReusedException;
 import com.alopez.store.payments.exceptions.PaymentException;
+import com.alopez.store.payments.exceptions.WebhookQueueFullException;
 import com.alopez.store.payments.services.CheckOutService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,6 +26,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -126,6 +130,63 @@ class CheckOutControllerIT {
         verify(checkOutService).checkOut(any(CheckOutRequest.class));
     }
 
+    @Test
+    void httpCheckOut_WithIdempotencyKey_UsesIdempotentCheckOut() throws Exception {
+        // Given
+        CheckOutRequest request = new CheckOutRequest();
+        request.setCartId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+
+        CheckOutResponse response = new CheckOutResponse(1L, "https://checkout.example.com/session123");
+
+        when(checkOutService.checkOut(any(CheckOutRequest.class), eq("key-1"))).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/api/checkout")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderId").value(1));
+
+        verify(checkOutService, never()).checkOut(any(CheckOutRequest.class));
+    }
+
+    @Test
+    void httpCheckOut_WithReusedIdempotencyKey_ReturnsUnprocessableEntity() throws Exception {
+        // Given
+        CheckOutRequest request = new CheckOutRequest();
+        request.setCartId(UUID.fromString("00000000-0000-0000-0000-000000000002"));
+
+        when(checkOutService.checkOut(any(CheckOutRequest.class), eq("key-1")))
+                .thenThrow(new IdempotencyKeyReusedException());
+
+        // When & Then
+        mockMvc.perform(post("/api/checkout")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").value("Idempotency-Key was already used for a different cart!"));
+    }
+
+    @Test
+    void httpCheckOut_WhileIdempotencyKeyInProgress_ReturnsConflict() throws Exception {
+        // Given
+        CheckOutRequest request = new CheckOutRequest();
+        request.setCartId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+
+        when(checkOutService.checkOut(any(CheckOutRequest.class), eq("key-1")))
+                .thenThrow(new IdempotencyKeyInProgressException());
+
+        // When & Then
+        mockMvc.perform(post("/api/checkout")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("A request with this Idempotency-Key is still in progress, please retry later!"));
+    }
+
     @Test
     void httpWebhook_WithValidRequest_ReturnsOk() throws Exception {
         // Given
@@ -141,4 +202,18 @@ class CheckOutControllerIT {
 
         verify(checkOutService).handleWebhookEvent(any(WebhookRequest.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void httpWebhook_WhenQueueIsFull_ReturnsServiceUnavailable() throws Exception {
+        // Given
+        doThrow(new WebhookQueueFullException()).when(checkOutService).handleWebhookEvent(any(WebhookRequest.class));
+
+        // When & Then
+        mockMvc.perform(post("/api/checkout/webhook")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.error").value("Too many pending webhook events, please retry later!"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.alopez.store.products.controllers;
+
+import com.alopez.store.products.dtos.CategoryDto;
+import com.alopez.store.products.dtos.ResourceVersion;
+import com.alopez.store.products.services.CategoryRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryControllerIT {
+    private static final ResourceVersion VERSION = new ResourceVersion("\"cat-test-1\"", 1_700_000_000_000L);
+
+    @Mock
+    private CategoryRegistry categoryRegistry;
+
+    @InjectMocks
+    private CategoryController categoryController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(categoryController).build();
+    }
+
+    @Test
+    void httpGetCategories_ReturnsCategoriesWithETag() throws Exception {
+        // Given
+        when(categoryRegistry.getVersion()).thenReturn(VERSION);
+        when(categoryRegistry.getAll()).thenReturn(List.of(new CategoryDto((byte) 1, "Flores")));
+
+        // When & Then
+        mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", VERSION.getEtag()))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Flores"));
+    }
+
+    @Test
+    void httpGetCategories_WithMatchingETag_ReturnsNotModified() throws Exception {
+        // Given
+        when(categoryRegistry.getVersion()).thenReturn(VERSION);
+
+        // When & Then
+        mockMvc.perform(get("/api/categories").header("If-None-Match", VERSION.getEtag()))
+                .andExpect(status().isNotModified());
+
+        verify(categoryRegistry, never()).getAll();
+    }
+
+    @Test
+    void httpGetCategory_WithNonExistingCategory_ReturnsNotFound() throws Exception {
+        // Given
+        when(categoryRegistry.find((byte) 9)).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/categories/9"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Category not found!"));
+    }
+
+    @Test
+    void httpCreateCategory_ReturnsLocationHeader() throws Exception {
+        // Given
+        when(categoryRegistry.create("Regalos")).thenReturn(new CategoryDto((byte) 3, "Regalos"));
+
+        // When & Then
+        mockMvc.perform(post("/api/categories")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Regalos\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", containsString("/categories/3")))
+                .andExpect(jsonPath("$.id").value(3));
+    }
+}
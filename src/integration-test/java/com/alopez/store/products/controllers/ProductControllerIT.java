@@ -1,9 +1,20 @@
 
 package com.alopez.store.products.controllers;
 
+import com.alopez.store.products.dtos.BulkPriceChangeRequest;
+import com.alopez.store.products.dtos.BulkPriceChangeResultDto;
+import com.alopez.store.products.dtos.PriceChangeMode;
 import com.alopez.store.products.dtos.ProductDto;
+import com.alopez.store.products.dtos.ProductImportErrorDto;
+import com.alopez.store.products.dtos.ProductImportFormat;
+import com.alopez.store.products.dtos.ProductImportResultDto;
+import com.alopez.store.products.dtos.ProductSummaryDto;
+import com.alopez.store.products.dtos.ResourceVersion;
 import com.alopez.store.products.exceptions.CategoryNotFoundException;
 import com.alopez.store.products.exceptions.ProductNotFoundException;
+import com.alopez.store.products.exceptions.InvalidPriceChangeException;
+import com.alopez.store.products.services.ProductImportService;
+import com.alopez.store.products.services.ProductPriceService;
 import com.alopez.store.products.services.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,16 +40,25 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @ExtendWith(MockitoExtension.class)
 class ProductControllerIT {
+    private static final ResourceVersion CATALOG_VERSION = new ResourceVersion("\"c-test-1\"", 1_700_000_000_000L);
+    private static final ResourceVersion PRODUCT_VERSION = new ResourceVersion("\"p123-test-1\"", 1_700_000_000_000L);
 
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductImportService productImportService;
+
+    @Mock
+    private ProductPriceService productPriceService;
+
     @InjectMocks
     private ProductController productController;
 
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
     private ProductDto testProductDto;
+    private ProductSummaryDto testProductSummary;
 
     @BeforeEach
     void setUp() {
@@ -52,12 +72,15 @@ class ProductControllerIT {
         testProductDto.setDescription("Test Description");
         testProductDto.setPrice(new BigDecimal("99.99"));
         testProductDto.setCategoryId((byte) 1);
+
+        testProductSummary = new ProductSummaryDto(1L, "Test Product", new BigDecimal("99.99"), (byte) 1);
     }
 
     @Test
     void httpGetProducts_WithoutCategoryFilter_ReturnsAllProducts() throws Exception {
         // Given
-        when(productService.getAllProducts(null)).thenReturn(List.of(testProductDto));
+        when(productService.getCatalogVersion(null)).thenReturn(CATALOG_VERSION);
+        when(productService.getAllProducts(null)).thenReturn(List.of(testProductSummary));
 
         // When & Then
         mockMvc.perform(get("/api/products"))
@@ -66,16 +89,32 @@ class ProductControllerIT {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value("Test Product"))
-                .andExpect(jsonPath("$[0].price").value(99.99));
+                .andExpect(jsonPath("$[0].price").value(99.99))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(header().string("ETag", CATALOG_VERSION.getEtag()));
 
         verify(productService).getAllProducts(null);
     }
 
+    @Test
+    void httpGetProducts_WithMatchingETag_ReturnsNotModified() throws Exception {
+        // Given
+        when(productService.getCatalogVersion(null)).thenReturn(CATALOG_VERSION);
+
+        // When & Then
+        mockMvc.perform(get("/api/products").header("If-None-Match", CATALOG_VERSION.getEtag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(productService, never()).getAllProducts(any());
+    }
+
     @Test
     void httpGetProducts_WithCategoryFilter_ReturnsFilteredProducts() throws Exception {
         // Given
         byte categoryId = 1;
-        when(productService.getAllProducts(categoryId)).thenReturn(List.of(testProductDto));
+        when(productService.getCatalogVersion(categoryId)).thenReturn(CATALOG_VERSION);
+        when(productService.getAllProducts(categoryId)).thenReturn(List.of(testProductSummary));
 
         // When & Then
         mockMvc.perform(get("/api/products").param("categoryId", "1"))
@@ -90,6 +129,7 @@ class ProductControllerIT {
     @Test
     void httpGetProduct_MapsPathVariableCorrectly() throws Exception {
         // Given
+        when(productService.getProductVersion(123L)).thenReturn(PRODUCT_VERSION);
         when(productService.getProductById(123L)).thenReturn(testProductDto);
 
         // When & Then
@@ -98,14 +138,39 @@ class ProductControllerIT {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.name").value("Test Product"))
-                .andExpect(jsonPath("$.description").value("Test Description"));
+                .andExpect(jsonPath("$.description").value("Test Description"))
+                .andExpect(header().string("ETag", PRODUCT_VERSION.getEtag()));
 
         verify(productService).getProductById(123L);
     }
 
+    @Test
+    void httpGetProduct_WithMatchingETag_ReturnsNotModified() throws Exception {
+        // Given
+        when(productService.getProductVersion(123L)).thenReturn(PRODUCT_VERSION);
+        when(productService.getProductById(123L)).thenReturn(testProductDto);
+
+        // When & Then
+        mockMvc.perform(get("/api/products/123").header("If-None-Match", PRODUCT_VERSION.getEtag()))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void httpGetProduct_WithMatchingETagForDeletedProduct_ReturnsNotFoundWithoutETag() throws Exception {
+        // Given
+        when(productService.getProductVersion(999L)).thenReturn(PRODUCT_VERSION);
+        when(productService.getProductById(999L)).thenThrow(new ProductNotFoundException());
+
+        // When & Then
+        mockMvc.perform(get("/api/products/999").header("If-None-Match", PRODUCT_VERSION.getEtag()))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
     @Test
     void httpGetProduct_WithNonExistingProduct_ReturnsNotFound() throws Exception {
         // Given
+        when(productService.getProductVersion(999L)).thenReturn(PRODUCT_VERSION);
         when(productService.getProductById(999L)).thenThrow(new ProductNotFoundException());
 
         // When & Then
@@ -145,6 +210,61 @@ class ProductControllerIT {
                 .andExpect(header().string("Location", containsString("/products/42")));
     }
 
+    @Test
+    void httpImportProducts_WithCsv_ReturnsImportReport() throws Exception {
+        // Given
+        var report = new ProductImportResultDto(1, 1, List.of(new ProductImportErrorDto(3, "Price is not a number")), false);
+        when(productImportService.importProducts(any(), eq(ProductImportFormat.CSV))).thenReturn(report);
+
+        // When & Then
+        mockMvc.perform(post("/api/products/import")
+                        .contentType("text/csv")
+                        .content("name,price,categoryId\nRosas,10,1\nTulipanes,abc,1\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].error").value("Price is not a number"));
+    }
+
+    @Test
+    void httpChangePrices_ReturnsUpdatedCount() throws Exception {
+        // Given
+        var request = new BulkPriceChangeRequest();
+        request.setMode(PriceChangeMode.PERCENTAGE);
+        request.setAmount(new BigDecimal("-10"));
+        request.setCategoryId((byte) 1);
+
+        when(productPriceService.changePrices(any(BulkPriceChangeRequest.class)))
+                .thenReturn(new BulkPriceChangeResultDto(250, 12, 20833));
+
+        // When & Then
+        mockMvc.perform(post("/api/products/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(250))
+                .andExpect(jsonPath("$.rowsPerSecond").value(20833));
+    }
+
+    @Test
+    void httpChangePrices_WithoutTarget_ReturnsBadRequest() throws Exception {
+        // Given
+        var request = new BulkPriceChangeRequest();
+        request.setMode(PriceChangeMode.ABSOLUTE);
+        request.setAmount(new BigDecimal("5"));
+
+        when(productPriceService.changePrices(any(BulkPriceChangeRequest.class)))
+                .thenThrow(new InvalidPriceChangeException("Either categoryId or productIds must be given"));
+
+        // When & Then
+        mockMvc.perform(post("/api/products/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Either categoryId or productIds must be given"));
+    }
+
     @Test
     void httpCreateProduct_WithInvalidCategory_ReturnsBadRequest() throws Exception {
         // Given
@@ -1,15 +1,92 @@
 package com.alopez.store.admin.controllers;
 
+import com.alopez.store.admin.dtos.ConnectionPoolStats;
+import com.alopez.store.carts.dtos.CartReaperStats;
+import com.alopez.store.carts.dtos.CartStoreStats;
+import com.alopez.store.carts.services.CartReaper;
+import com.alopez.store.carts.services.CartStore;
+import com.alopez.store.outbox.dtos.OutboxRelayStats;
+import com.alopez.store.outbox.services.OutboxRelay;
+import com.alopez.store.payments.dtos.WebhookQueueStats;
+import com.alopez.store.payments.services.PaymentWebhookQueue;
+import com.alopez.store.products.dtos.CatalogCacheStats;
+import com.alopez.store.products.services.ProductCatalogCache;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.AllArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@AllArgsConstructor
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
+    private final ProductCatalogCache productCatalogCache;
+    private final CartStore cartStore;
+    private final CartReaper cartReaper;
+    private final DataSource dataSource;
+    private final OutboxRelay outboxRelay;
+    private final PaymentWebhookQueue paymentWebhookQueue;
 
     @GetMapping("/hello")
     public String sayHello() {
         return "Hello from AdminController";
     }
+
+    @GetMapping("/catalog-cache")
+    public CatalogCacheStats getCatalogCacheStats() {
+        return productCatalogCache.getStats();
+    }
+
+    @GetMapping("/cart-store")
+    public CartStoreStats getCartStoreStats() {
+        return cartStore.getStats();
+    }
+
+    @GetMapping("/cart-reaper")
+    public CartReaperStats getCartReaperStats() {
+        return cartReaper.getStats();
+    }
+
+    @GetMapping("/outbox")
+    public OutboxRelayStats getOutboxStats() {
+        return outboxRelay.getStats();
+    }
+
+    @GetMapping("/webhook-queue")
+    public WebhookQueueStats getWebhookQueueStats() {
+        return paymentWebhookQueue.getStats();
+    }
+
+    // Threads awaiting a connection show when slow work, such as a remote call, is holding connections.
+    @GetMapping("/connection-pool")
+    public ConnectionPoolStats getConnectionPoolStats() {
+        var hikari = unwrapHikari();
+        if (hikari == null) {
+            return new ConnectionPoolStats(0, 0, 0, 0, 0);
+        }
+        var pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return new ConnectionPoolStats(0, 0, 0, 0, hikari.getMaximumPoolSize());
+        }
+        return new ConnectionPoolStats(
+                pool.getActiveConnections(),
+                pool.getIdleConnections(),
+                pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection(),
+                hikari.getMaximumPoolSize()
+        );
+    }
+
+    // The data source may be a proxy, e.g. for tracing, so Hikari is reached through unwrap rather than injected.
+    private HikariDataSource unwrapHikari() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
 }
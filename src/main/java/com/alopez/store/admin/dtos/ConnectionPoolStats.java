@@ -0,0 +1,14 @@
+package com.alopez.store.admin.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class ConnectionPoolStats {
+    private int activeConnections;
+    private int idleConnections;
+    private int totalConnections;
+    private int threadsAwaitingConnection;
+    private int maximumPoolSize;
+}
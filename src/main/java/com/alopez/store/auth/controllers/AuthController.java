@@ -7,6 +7,7 @@ import com.alopez.store.auth.dtos.UserLoginRequest;
 import com.alopez.store.users.exceptions.UserNotFoundException;
 import com.alopez.store.users.mappers.UserMapper;
 import com.alopez.store.auth.services.AuthService;
+import com.alopez.store.carts.services.CartService;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
@@ -22,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
     private final UserMapper userMapper;
     private final AuthService authService;
+    private final CartService cartService;
 
     @PostMapping("/login")
     public ResponseEntity<JwtResponse> login(
@@ -29,7 +31,8 @@ public class AuthController {
             HttpServletResponse response
     ) {
         var accessToken = authService.login(request, response);
-        return ResponseEntity.ok(new JwtResponse(accessToken.toString()));
+        var cartId = cartService.mergeCarts(request.getCartId(), accessToken.getUserId());
+        return ResponseEntity.ok(new JwtResponse(accessToken.toString(), cartId));
     }
 
     @PostMapping("/refresh")
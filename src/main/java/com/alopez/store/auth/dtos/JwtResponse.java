@@ -1,10 +1,19 @@
 package com.alopez.store.auth.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.util.UUID;
+
 @AllArgsConstructor
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class JwtResponse {
     private String token;
+    private UUID cartId;
+
+    public JwtResponse(String token) {
+        this.token = token;
+    }
 }
@@ -4,6 +4,8 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
+import java.util.UUID;
+
 @Data
 public class UserLoginRequest {
     @NotBlank(message = "Email is required")
@@ -12,4 +14,7 @@ public class UserLoginRequest {
 
     @NotBlank(message = "Password is required")
     private String password;
+
+    // The guest cart to merge into the customer's cart, if any.
+    private UUID cartId;
 }
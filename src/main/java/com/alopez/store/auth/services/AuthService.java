@@ -50,10 +50,13 @@ public class AuthService {
     }
 
     public User getCurrentUser() {
-        var authentication = SecurityContextHolder.getContext().getAuthentication();
-        var userID = (Long) authentication.getPrincipal();
+        return userRepository.findById(getCurrentUserId()).orElse(null);
+    }
 
-        return userRepository.findById(userID).orElse(null);
+    // Read from the authentication token, so unlike getCurrentUser it never touches the database.
+    public Long getCurrentUserId() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (Long) authentication.getPrincipal();
     }
 
     private void createCookieWithRefreshToken(HttpServletResponse response, Jwt refreshToken) {
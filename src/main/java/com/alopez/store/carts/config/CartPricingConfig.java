@@ -0,0 +1,31 @@
+package com.alopez.store.carts.config;
+
+import com.alopez.store.carts.dtos.PromotionType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "carts.pricing")
+@Data
+public class CartPricingConfig {
+    private int cacheSize = 10000;
+    private List<Promotion> promotions = new ArrayList<>();
+
+    @Data
+    public static class Promotion {
+        private String name;
+        private PromotionType type;
+        // CATEGORY_PERCENTAGE
+        private Byte categoryId;
+        private BigDecimal percentage;
+        // BUY_X_GET_Y: for every buy + free units of the product, free units cost nothing
+        private Long productId;
+        private int buy;
+        private int free;
+    }
+}
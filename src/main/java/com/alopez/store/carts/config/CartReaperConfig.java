@@ -0,0 +1,17 @@
+package com.alopez.store.carts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "carts.reaper")
+@Data
+public class CartReaperConfig {
+    private boolean enabled = true;
+    private int ttlDays = 30;
+    private int chunkSize = 500;
+    private long pauseMillis = 100;
+    private int maxChunksPerRun = 200;
+    private long interval = 3600000;
+}
@@ -0,0 +1,18 @@
+package com.alopez.store.carts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "carts.store")
+@Data
+public class CartStoreConfig {
+    private String type = "jpa";
+    private boolean upsertItems = true;
+    private int maxRetries = 3;
+    private int maxCarts = 10000;
+    private long flushInterval = 1000;
+    private int flushBatchSize = 100;
+    private long idleTimeout = 600000;
+}
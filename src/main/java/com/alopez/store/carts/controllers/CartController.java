@@ -3,13 +3,18 @@ package com.alopez.store.carts.controllers;
 import com.alopez.store.carts.dtos.AddItemToCartRequest;
 import com.alopez.store.carts.dtos.CartDto;
 import com.alopez.store.carts.dtos.CartItemDto;
+import com.alopez.store.carts.dtos.CartSummaryDto;
 import com.alopez.store.carts.dtos.UpdateCartItemRequest;
+import com.alopez.store.carts.dtos.UpdateCartRequest;
+import com.alopez.store.carts.exceptions.CartConflictException;
+import com.alopez.store.carts.exceptions.InvalidCartOperationException;
 import com.alopez.store.common.dtos.ErrorDto;
 import com.alopez.store.carts.exceptions.CartNotFoundException;
 import com.alopez.store.products.exceptions.ProductNotFoundException;
 import com.alopez.store.carts.services.CartService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,8 +29,15 @@ public class CartController {
     private final CartService cartService;
 
     @GetMapping("/{cartId}")
-    public CartDto getCart(@PathVariable("cartId") UUID cartId) {
-        return cartService.getCart(cartId);
+    public ResponseEntity<CartDto> getCart(@PathVariable("cartId") UUID cartId) {
+        var cartDto = cartService.getCart(cartId);
+        return ResponseEntity.ok().eTag(String.valueOf(cartDto.getVersion())).body(cartDto);
+    }
+
+    @GetMapping("/{cartId}/summary")
+    public ResponseEntity<CartSummaryDto> getCartSummary(@PathVariable("cartId") UUID cartId) {
+        var summary = cartService.getCartSummary(cartId);
+        return ResponseEntity.ok().eTag(String.valueOf(summary.getVersion())).body(summary);
     }
 
     @PostMapping
@@ -35,6 +47,15 @@ public class CartController {
         return ResponseEntity.created(uri).body(cartDto);
     }
 
+    @PatchMapping("/{cartId}")
+    public CartDto updateCart(
+            @PathVariable("cartId") UUID cartId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UpdateCartRequest request
+    ) {
+        return cartService.updateCart(cartId, request.getOperations(), expectedVersion(ifMatch));
+    }
+
     @PostMapping("/{cartId}/items")
     public ResponseEntity<CartItemDto> addProductToCart(
             @PathVariable("cartId") UUID cartId,
@@ -48,17 +69,19 @@ public class CartController {
     public CartItemDto updateItemInCart(
             @PathVariable("cartId") UUID cartId,
             @PathVariable("productId") Long productId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateCartItemRequest request
     ) {
-        return cartService.updateItemInCart(cartId, productId, request.getQuantity());
+        return cartService.updateItemInCart(cartId, productId, request.getQuantity(), expectedVersion(ifMatch));
     }
 
     @DeleteMapping("/{cartId}/items/{productId}")
     public ResponseEntity<Void> removeItemFromCart(
             @PathVariable("cartId") UUID cartId,
-            @PathVariable("productId") Long productId
+            @PathVariable("productId") Long productId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        cartService.removeItemFromCart(cartId, productId);
+        cartService.removeItemFromCart(cartId, productId, expectedVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
@@ -68,11 +91,38 @@ public class CartController {
         return ResponseEntity.noContent().build();
     }
 
+    // If-Match carries the cart's ETag, which is its version; without it a change applies to the latest cart.
+    private Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        var tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new CartConflictException();
+        }
+    }
+
     @ExceptionHandler(CartNotFoundException.class)
     public ResponseEntity<ErrorDto> handleCartNotFound(Exception e) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorDto(e.getMessage()));
     }
 
+    @ExceptionHandler(CartConflictException.class)
+    public ResponseEntity<ErrorDto> handleCartConflict(Exception e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorDto(e.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidCartOperationException.class)
+    public ResponseEntity<ErrorDto> handleInvalidCartOperation(Exception e) {
+        return ResponseEntity.badRequest().body(new ErrorDto(e.getMessage()));
+    }
+
     @ExceptionHandler(ProductNotFoundException.class)
     public ResponseEntity<ErrorDto> handleProductNotFound(Exception e) {
         return ResponseEntity.badRequest().body(new ErrorDto(e.getMessage()));
@@ -10,6 +10,10 @@ import java.util.UUID;
 @Data
 public class CartDto {
     private UUID id;
+    private Long version;
     private List<CartItemDto> items = new ArrayList<>();
+    private BigDecimal subtotal = BigDecimal.ZERO;
+    private BigDecimal discount = BigDecimal.ZERO;
     private BigDecimal totalPrice = BigDecimal.ZERO;
+    private List<String> appliedPromotions = new ArrayList<>();
 }
@@ -8,5 +8,6 @@ import java.math.BigDecimal;
 public class CartItemDto {
     private CartProductDto product;
     private int quantity;
+    private BigDecimal discount = BigDecimal.ZERO;
     private BigDecimal totalPrice;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.alopez.store.carts.dtos;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperationRequest {
+    @NotNull(message = "Operation is required")
+    private CartOperationType op;
+
+    @NotNull(message = "Product id is required")
+    private Long productId;
+
+    // Only used by SET_QUANTITY.
+    @Min(value = 1, message = "Quantity must be greater than 0")
+    @Max(value = 100, message = "Quantity must be less than 100")
+    private Integer quantity;
+}
@@ -0,0 +1,7 @@
+package com.alopez.store.carts.dtos;
+
+public enum CartOperationType {
+    ADD,
+    SET_QUANTITY,
+    REMOVE
+}
@@ -0,0 +1,14 @@
+package com.alopez.store.carts.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class CartReaperStats {
+    private long runs;
+    private long deletedCarts;
+    private long lastRunDeletedCarts;
+    private int lastRunChunks;
+    private long lastRunDurationMillis;
+}
@@ -0,0 +1,17 @@
+package com.alopez.store.carts.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class CartStoreStats {
+    private String type;
+    private int cachedCarts;
+    private int dirtyCarts;
+    private long oldestDirtyAgeMillis;
+    private long flushedCarts;
+    private long flushFailures;
+    private long evictions;
+    private long lastFlushDurationMillis;
+}
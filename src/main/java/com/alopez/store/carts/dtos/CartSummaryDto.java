@@ -0,0 +1,26 @@
+package com.alopez.store.carts.dtos;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/*
+ Item count and subtotal of a cart, read with one aggregate query instead of loading its items.
+ The subtotal is before promotions; the full cart carries discounts and the discounted total.
+ */
+@Getter
+public class CartSummaryDto {
+    private UUID id;
+    private Long version;
+    private long itemCount;
+    private BigDecimal subtotal;
+
+    // The sums of an empty cart come back from the aggregate query as null.
+    public CartSummaryDto(UUID id, Long version, Long itemCount, BigDecimal subtotal) {
+        this.id = id;
+        this.version = version;
+        this.itemCount = itemCount != null ? itemCount : 0;
+        this.subtotal = subtotal != null ? subtotal : BigDecimal.ZERO;
+    }
+}
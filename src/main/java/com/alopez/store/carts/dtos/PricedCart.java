@@ -0,0 +1,22 @@
+package com.alopez.store.carts.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@AllArgsConstructor
+@Getter
+public class PricedCart {
+    private Map<Long, PricedLine> lines;
+    private BigDecimal subtotal;
+    private BigDecimal discount;
+    private BigDecimal total;
+    private List<String> appliedPromotions;
+
+    public PricedLine getLine(Long productId) {
+        return lines.get(productId);
+    }
+}
@@ -0,0 +1,18 @@
+package com.alopez.store.carts.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@AllArgsConstructor
+@Getter
+public class PricedLine {
+    private Long productId;
+    private Byte categoryId;
+    private BigDecimal unitPrice;
+    private int quantity;
+    private BigDecimal subtotal;
+    private BigDecimal discount;
+    private BigDecimal total;
+}
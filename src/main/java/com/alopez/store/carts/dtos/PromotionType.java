@@ -0,0 +1,6 @@
+package com.alopez.store.carts.dtos;
+
+public enum PromotionType {
+    CATEGORY_PERCENTAGE,
+    BUY_X_GET_Y
+}
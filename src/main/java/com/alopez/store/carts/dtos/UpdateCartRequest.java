@@ -0,0 +1,15 @@
+package com.alopez.store.carts.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UpdateCartRequest {
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 100, message = "At most 100 operations are allowed")
+    private List<@Valid CartOperationRequest> operations;
+}
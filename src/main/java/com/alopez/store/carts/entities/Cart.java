@@ -1,16 +1,21 @@
 package com.alopez.store.carts.entities;
 
+import com.alopez.store.common.ids.TimeOrderedUuid;
 import com.alopez.store.products.dtos.Product;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
 
+/*
+ Items are indexed by product id and the total price is kept up to date as items change.
+ The index is rebuilt whenever the items collection is replaced, e.g. by Hibernate or setItems,
+ so items must be changed through this class (or CartItem.setQuantity), never through getItems.
+ */
 @Getter
 @Setter
 @Entity
@@ -18,27 +23,56 @@ import java.util.UUID;
 public class Cart {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     @Column(name = "id")
     private UUID id;
 
     @Column(name = "date_created", insertable = false, updatable = false)
     private LocalDate dateCreated;
 
-    @OneToMany(mappedBy = "cart", cascade = CascadeType.MERGE, orphanRemoval = true, fetch = FetchType.EAGER)
+    // Null for guest carts; a customer has at most one cart.
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    // The last order whose items were cleared from the cart, so a redelivered ORDER_CHECKED_OUT is not applied twice.
+    // No foreign key: the order may be deleted later.
+    @Column(name = "checked_out_order_id")
+    private Long checkedOutOrderId;
+
+    // Bumped by the cart stores with a compare-and-set update; see JpaCartStore.
+    @Column(name = "version", updatable = false)
+    private Long version = 0L;
+
+    // Lazy, so loading a cart never drags its items along; CartRepository.getCartWithItems fetches them when needed.
+    @OneToMany(mappedBy = "cart", cascade = CascadeType.MERGE, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<CartItem> items = new HashSet<>();
 
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<Long, CartItem> itemIndex;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Set<CartItem> indexedItems;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private BigDecimal totalPrice;
+
+    public Set<CartItem> getItems() {
+        return Collections.unmodifiableSet(items);
+    }
+
     public BigDecimal getTotalPrice() {
-        return items.stream()
-                .map(CartItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        index();
+        return totalPrice;
     }
 
     public CartItem getItem(Long productId) {
-        return items.stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .orElse(null);
+        return index().get(productId);
     }
 
     public CartItem addItem(Product product) {
@@ -52,15 +86,18 @@ public class Cart {
             cartItem.setQuantity(1);
             cartItem.setCart(this);
             items.add(cartItem);
+            itemIndex.put(product.getId(), cartItem);
+            totalPrice = totalPrice.add(cartItem.getTotalPrice());
         }
 
         return cartItem;
     }
 
     public void removeItem(Long productId) {
-        var cartItem = getItem(productId);
+        var cartItem = index().remove(productId);
         if (cartItem != null) {
             items.remove(cartItem);
+            totalPrice = totalPrice.subtract(cartItem.getTotalPrice());
             cartItem.setCart(null);
         }
     }
@@ -71,5 +108,30 @@ public class Cart {
 
     public void clearCart() {
         items.clear();
+        itemIndex = null;
+    }
+
+    void onQuantityChanged(CartItem cartItem, int previousQuantity) {
+        if (cartItem.getQuantity() == null) {
+            itemIndex = null;
+        } else if (itemIndex != null && indexedItems == items) {
+            var delta = BigDecimal.valueOf(cartItem.getQuantity() - previousQuantity);
+            totalPrice = totalPrice.add(cartItem.getProduct().getPrice().multiply(delta));
+        }
+    }
+
+    private Map<Long, CartItem> index() {
+        if (itemIndex == null || indexedItems != items) {
+            var index = new HashMap<Long, CartItem>(Math.max(16, items.size() * 2));
+            var total = BigDecimal.ZERO;
+            for (var item : items) {
+                index.put(item.getProduct().getId(), item);
+                total = total.add(item.getTotalPrice());
+            }
+            itemIndex = index;
+            indexedItems = items;
+            totalPrice = total;
+        }
+        return itemIndex;
     }
 }
@@ -29,6 +29,14 @@ public class CartItem {
     @Column(name = "quantity")
     private Integer quantity;
 
+    public void setQuantity(Integer quantity) {
+        var previousQuantity = this.quantity;
+        this.quantity = quantity;
+        if (cart != null && previousQuantity != null) {
+            cart.onQuantityChanged(this, previousQuantity);
+        }
+    }
+
     public BigDecimal getTotalPrice() {
         return product.getPrice().multiply(BigDecimal.valueOf(quantity));
     }
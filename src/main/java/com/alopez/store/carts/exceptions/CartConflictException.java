@@ -0,0 +1,5 @@
+package com.alopez.store.carts.exceptions;
+
+public class CartConflictException extends RuntimeException {
+    public CartConflictException() { super("Cart was changed by another request!");}
+}
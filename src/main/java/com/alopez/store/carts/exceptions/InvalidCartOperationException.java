@@ -0,0 +1,5 @@
+package com.alopez.store.carts.exceptions;
+
+public class InvalidCartOperationException extends RuntimeException {
+    public InvalidCartOperationException() { super("Quantity is required to set an item's quantity!");}
+}
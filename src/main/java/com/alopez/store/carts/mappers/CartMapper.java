@@ -2,6 +2,8 @@ package com.alopez.store.carts.mappers;
 
 import com.alopez.store.carts.dtos.CartDto;
 import com.alopez.store.carts.dtos.CartItemDto;
+import com.alopez.store.carts.dtos.PricedCart;
+import com.alopez.store.carts.dtos.PricedLine;
 import com.alopez.store.carts.entities.Cart;
 import com.alopez.store.carts.entities.CartItem;
 import org.mapstruct.Mapper;
@@ -10,8 +12,33 @@ import org.mapstruct.Mapping;
 @Mapper(componentModel = "spring")
 public interface CartMapper {
     @Mapping(target = "totalPrice", expression = "java(cart.getTotalPrice())")
+    @Mapping(target = "subtotal", expression = "java(cart.getTotalPrice())")
+    @Mapping(target = "discount", ignore = true)
+    @Mapping(target = "appliedPromotions", ignore = true)
     CartDto toDto(Cart cart);
 
     @Mapping(target = "totalPrice", expression = "java(cartItem.getTotalPrice())")
+    @Mapping(target = "discount", ignore = true)
     CartItemDto toDto(CartItem cartItem);
+
+    default CartDto toDto(Cart cart, PricedCart pricing) {
+        var cartDto = toDto(cart);
+        cartDto.setSubtotal(pricing.getSubtotal());
+        cartDto.setDiscount(pricing.getDiscount());
+        cartDto.setTotalPrice(pricing.getTotal());
+        cartDto.setAppliedPromotions(pricing.getAppliedPromotions());
+        cartDto.getItems().forEach(item -> {
+            var line = pricing.getLine(item.getProduct().getId());
+            item.setDiscount(line.getDiscount());
+            item.setTotalPrice(line.getTotal());
+        });
+        return cartDto;
+    }
+
+    default CartItemDto toDto(CartItem cartItem, PricedLine line) {
+        var cartItemDto = toDto(cartItem);
+        cartItemDto.setDiscount(line.getDiscount());
+        cartItemDto.setTotalPrice(line.getTotal());
+        return cartItemDto;
+    }
 }
@@ -0,0 +1,35 @@
+package com.alopez.store.carts.repositories;
+
+import com.alopez.store.carts.entities.CartItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+    // Inserts nothing when the cart or the product does not exist.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            INSERT INTO cart_items (cart_id, product_id, quantity)
+            SELECT c.id, p.id, 1 FROM carts c JOIN products p ON p.id = :productId WHERE c.id = :cartId
+            ON DUPLICATE KEY UPDATE quantity = cart_items.quantity + 1""", nativeQuery = true)
+    int incrementQuantity(@Param("cartId") UUID cartId, @Param("productId") Long productId);
+
+    // Copies a guest cart's items into another cart, summing quantities of products both carts hold.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            INSERT INTO cart_items (cart_id, product_id, quantity)
+            SELECT :targetCartId, g.product_id, g.quantity
+            FROM cart_items g JOIN carts gc ON gc.id = g.cart_id
+            WHERE g.cart_id = :guestCartId AND gc.customer_id IS NULL
+            ON DUPLICATE KEY UPDATE quantity = cart_items.quantity + g.quantity""", nativeQuery = true)
+    int mergeGuestItems(@Param("guestCartId") UUID guestCartId, @Param("targetCartId") UUID targetCartId);
+
+    @Query("""
+            SELECT ci FROM CartItem ci JOIN FETCH ci.product
+            WHERE ci.cart.id = :cartId AND ci.product.id = :productId""")
+    Optional<CartItem> findWithProduct(@Param("cartId") UUID cartId, @Param("productId") Long productId);
+}
@@ -1,8 +1,10 @@
 package com.alopez.store.carts.repositories;
 
+import com.alopez.store.carts.dtos.CartSummaryDto;
 import com.alopez.store.carts.entities.Cart;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -13,4 +15,32 @@ public interface CartRepository extends JpaRepository<Cart, UUID> {
     @EntityGraph(attributePaths = "items.product")
     @Query("SELECT c FROM Cart c WHERE c.id = :cartId")
     Optional<Cart> getCartWithItems(@Param("cartId") UUID cartId);
+
+    @Query("""
+            SELECT new com.alopez.store.carts.dtos.CartSummaryDto(c.id, c.version, SUM(i.quantity), SUM(i.quantity * p.price))
+            FROM Cart c LEFT JOIN c.items i LEFT JOIN i.product p
+            WHERE c.id = :cartId
+            GROUP BY c.id, c.version""")
+    Optional<CartSummaryDto> getCartSummary(@Param("cartId") UUID cartId);
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.version = c.version + 1 WHERE c.id = :cartId AND c.version = :version")
+    int compareAndIncrementVersion(@Param("cartId") UUID cartId, @Param("version") Long version);
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.version = c.version + 1 WHERE c.id = :cartId")
+    int incrementVersion(@Param("cartId") UUID cartId);
+
+    @Query("SELECT c.id FROM Cart c WHERE c.customerId = :customerId")
+    Optional<UUID> findIdByCustomerId(@Param("customerId") Long customerId);
+
+    @Modifying
+    @Query("""
+            UPDATE Cart c SET c.customerId = :customerId, c.version = c.version + 1
+            WHERE c.id = :cartId AND c.customerId IS NULL""")
+    int claimGuestCart(@Param("cartId") UUID cartId, @Param("customerId") Long customerId);
+
+    @Modifying
+    @Query("DELETE FROM Cart c WHERE c.id = :cartId AND c.customerId IS NULL")
+    int deleteGuestCart(@Param("cartId") UUID cartId);
 }
@@ -0,0 +1,152 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.config.CartPricingConfig;
+import com.alopez.store.carts.dtos.PricedCart;
+import com.alopez.store.carts.dtos.PricedLine;
+import com.alopez.store.carts.entities.Cart;
+import com.alopez.store.carts.entities.CartItem;
+import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.services.ProductChangeListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/*
+ Prices carts: line subtotals, promotion discounts and totals, all rounded to cents.
+ The last result per cart is kept in a bounded LRU cache keyed by the cart's version and a catalog generation
+ that every product change bumps, so a hit costs no walk over the lines: a cart is priced once per version
+ and catalog change, however many times it is shown or checked out.
+ */
+@Component
+public class CartPricingEngine implements ProductChangeListener {
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final List<CartPricingConfig.Promotion> promotions;
+    private final Map<UUID, CachedPrice> cache;
+    private long catalogGeneration;
+
+    public CartPricingEngine(CartPricingConfig config) {
+        config.getPromotions().forEach(CartPricingEngine::validate);
+        this.promotions = List.copyOf(config.getPromotions());
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedPrice> eldest) {
+                return size() > config.getCacheSize();
+            }
+        };
+    }
+
+    public PricedCart price(Cart cart) {
+        if (cart.getId() == null || cart.getVersion() == null) {
+            return compute(cart);
+        }
+
+        long generation;
+        synchronized (this) {
+            generation = catalogGeneration;
+            var cached = cache.get(cart.getId());
+            // The line count is a cheap guard against a cart changed in memory without a version bump.
+            if (cached != null
+                    && cached.cartVersion() == cart.getVersion()
+                    && cached.catalogGeneration() == generation
+                    && cached.lineCount() == cart.getItems().size()) {
+                return cached.priced();
+            }
+        }
+
+        // The generation read before computing is stored, so a price change while computing invalidates the result.
+        var priced = compute(cart);
+        synchronized (this) {
+            cache.put(cart.getId(), new CachedPrice(cart.getVersion(), generation, cart.getItems().size(), priced));
+        }
+        return priced;
+    }
+
+    @Override
+    public synchronized void onProductSaved(Product product, Byte previousCategoryId) {
+        catalogGeneration++;
+    }
+
+    @Override
+    public synchronized void onProductDeleted(Product product) {
+        catalogGeneration++;
+    }
+
+    @Override
+    public synchronized void onCatalogChanged() {
+        catalogGeneration++;
+    }
+
+    public PricedLine priceLine(CartItem item) {
+        return priceLine(item, new LinkedHashSet<>());
+    }
+
+    private PricedCart compute(Cart cart) {
+        var lines = new HashMap<Long, PricedLine>();
+        var applied = new LinkedHashSet<String>();
+        var subtotal = BigDecimal.ZERO;
+        var discount = BigDecimal.ZERO;
+
+        for (var item : cart.getItems()) {
+            var line = priceLine(item, applied);
+            lines.put(line.getProductId(), line);
+            subtotal = subtotal.add(line.getSubtotal());
+            discount = discount.add(line.getDiscount());
+        }
+
+        return new PricedCart(lines, subtotal, discount, subtotal.subtract(discount), List.copyOf(applied));
+    }
+
+    private PricedLine priceLine(CartItem item, Set<String> applied) {
+        var product = item.getProduct();
+        var categoryId = categoryIdOf(item);
+        var unitPrice = product.getPrice();
+        var subtotal = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
+        var discount = BigDecimal.ZERO;
+
+        for (var promotion : promotions) {
+            var promotionDiscount = switch (promotion.getType()) {
+                case CATEGORY_PERCENTAGE -> promotion.getCategoryId().equals(categoryId)
+                        ? subtotal.multiply(promotion.getPercentage()).divide(HUNDRED, 2, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO;
+                case BUY_X_GET_Y -> promotion.getProductId().equals(product.getId())
+                        ? unitPrice.multiply(BigDecimal.valueOf(freeUnits(promotion, item.getQuantity())))
+                        : BigDecimal.ZERO;
+            };
+            if (promotionDiscount.signum() > 0) {
+                discount = discount.add(promotionDiscount);
+                applied.add(promotion.getName());
+            }
+        }
+
+        discount = discount.min(subtotal);
+        return new PricedLine(product.getId(), categoryId, unitPrice, item.getQuantity(), subtotal, discount, subtotal.subtract(discount));
+    }
+
+    private static long freeUnits(CartPricingConfig.Promotion promotion, int quantity) {
+        return (long) (quantity / (promotion.getBuy() + promotion.getFree())) * promotion.getFree();
+    }
+
+    private static Byte categoryIdOf(CartItem item) {
+        var category = item.getProduct().getCategory();
+        return category != null ? category.getId() : null;
+    }
+
+    private static void validate(CartPricingConfig.Promotion promotion) {
+        var valid = promotion.getName() != null && promotion.getType() != null && switch (promotion.getType()) {
+            case CATEGORY_PERCENTAGE -> promotion.getCategoryId() != null
+                    && promotion.getPercentage() != null
+                    && promotion.getPercentage().signum() > 0
+                    && promotion.getPercentage().compareTo(HUNDRED) <= 0;
+            case BUY_X_GET_Y -> promotion.getProductId() != null && promotion.getBuy() > 0 && promotion.getFree() > 0;
+        };
+        if (!valid) {
+            throw new IllegalStateException("Invalid promotion in carts.pricing.promotions: " + promotion);
+        }
+    }
+
+    private record CachedPrice(long cartVersion, long catalogGeneration, int lineCount, PricedCart priced) {
+    }
+}
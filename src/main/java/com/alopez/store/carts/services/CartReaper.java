@@ -0,0 +1,113 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.config.CartReaperConfig;
+import com.alopez.store.carts.dtos.CartReaperStats;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Deletes guest carts untouched for more than ttlDays, least recently used first, in chunks that walk the
+ (customer_id, last_activity) index. last_activity moves on every version bump, so a cart in use is never
+ reaped, and customer carts are kept for good. Each chunk is its own DELETE, which re-checks the condition,
+ and cart_items rows go with their cart through ON DELETE CASCADE. Reaped ids are dropped from the CartStore
+ so a cached copy is not served or written back.
+ Between chunks the reaper sleeps at least as long as the chunk took, so it holds row locks (and feeds
+ replication) at most half of the time; a run stops after maxChunksPerRun and continues on the next one.
+ */
+@Component
+public class CartReaper {
+    private static final String SELECT_EXPIRED = """
+            SELECT id FROM carts
+            WHERE customer_id IS NULL AND last_activity < NOW(6) - INTERVAL ? DAY
+            ORDER BY last_activity
+            LIMIT ?""";
+    private static final String DELETE_EXPIRED = """
+            DELETE FROM carts
+            WHERE id IN (%s) AND customer_id IS NULL AND last_activity < NOW(6) - INTERVAL ? DAY""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CartStore cartStore;
+    private final CartReaperConfig config;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong deletedCarts = new AtomicLong();
+    private volatile long lastRunDeletedCarts;
+    private volatile int lastRunChunks;
+    private volatile long lastRunDurationMillis;
+
+    public CartReaper(JdbcTemplate jdbcTemplate, CartStore cartStore, CartReaperConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cartStore = cartStore;
+        this.config = config;
+    }
+
+    @Scheduled(
+            initialDelayString = "${carts.reaper.interval:3600000}",
+            fixedDelayString = "${carts.reaper.interval:3600000}"
+    )
+    public void reap() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        var startedAt = System.nanoTime();
+        long deleted = 0;
+        var chunks = 0;
+
+        try {
+            while (chunks < config.getMaxChunksPerRun()) {
+                var chunkStartedAt = System.nanoTime();
+                var ids = jdbcTemplate.queryForList(SELECT_EXPIRED, byte[].class, config.getTtlDays(), config.getChunkSize());
+                var count = ids.isEmpty() ? 0 : delete(ids);
+                chunks++;
+                deleted += count;
+                deletedCarts.addAndGet(count);
+
+                if (ids.size() < config.getChunkSize()) {
+                    break;
+                }
+                var chunkMillis = (System.nanoTime() - chunkStartedAt) / 1_000_000;
+                Thread.sleep(Math.max(config.getPauseMillis(), chunkMillis));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            runs.incrementAndGet();
+            lastRunDeletedCarts = deleted;
+            lastRunChunks = chunks;
+            lastRunDurationMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        }
+    }
+
+    private int delete(List<byte[]> ids) {
+        var args = new ArrayList<Object>(ids);
+        args.add(config.getTtlDays());
+        var count = jdbcTemplate.update(
+                DELETE_EXPIRED.formatted(String.join(", ", Collections.nCopies(ids.size(), "?"))), args.toArray());
+        ids.forEach(id -> cartStore.forget(toUuid(id)));
+        return count;
+    }
+
+    private static UUID toUuid(byte[] id) {
+        var buffer = ByteBuffer.wrap(id);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    public CartReaperStats getStats() {
+        return new CartReaperStats(
+                runs.get(),
+                deletedCarts.get(),
+                lastRunDeletedCarts,
+                lastRunChunks,
+                lastRunDurationMillis
+        );
+    }
+}
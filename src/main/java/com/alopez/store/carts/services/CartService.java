@@ -2,90 +2,227 @@ package com.alopez.store.carts.services;
 
 import com.alopez.store.carts.dtos.CartDto;
 import com.alopez.store.carts.dtos.CartItemDto;
+import com.alopez.store.carts.dtos.CartOperationRequest;
+import com.alopez.store.carts.dtos.CartOperationType;
+import com.alopez.store.carts.dtos.CartSummaryDto;
 import com.alopez.store.carts.entities.Cart;
-import com.alopez.store.carts.exceptions.CartNotFoundException;
+import com.alopez.store.carts.entities.CartItem;
+import com.alopez.store.carts.exceptions.CartConflictException;
+import com.alopez.store.carts.exceptions.InvalidCartOperationException;
+import com.alopez.store.products.dtos.Product;
 import com.alopez.store.products.exceptions.ProductNotFoundException;
 import com.alopez.store.carts.mappers.CartMapper;
+import com.alopez.store.carts.repositories.CartItemRepository;
 import com.alopez.store.carts.repositories.CartRepository;
 import com.alopez.store.products.repositories.ProductRepository;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Service
 public class CartService {
-    private final CartRepository cartRepository;
+    private final CartStore cartStore;
     private final ProductRepository productRepository;
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final TransactionTemplate transactionTemplate;
     private final CartMapper cartMapper;
+    private final CartPricingEngine cartPricingEngine;
 
     public CartDto createCart() {
-        var cart = new Cart();
-        cartRepository.save(cart);
+        var cart = cartStore.create();
 
-        return cartMapper.toDto(cart);
+        return toPricedDto(cart);
     }
 
     public CartDto getCart(UUID cartId) {
-        var cart = cartRepository.getCartWithItems(cartId).orElse(null);
-        if ( cart == null ) {
-            throw new CartNotFoundException();
-        }
-        return cartMapper.toDto(cart);
+        return cartStore.read(cartId, this::toPricedDto);
+    }
+
+    public CartSummaryDto getCartSummary(UUID cartId) {
+        return cartStore.summarize(cartId);
     }
 
     public CartItemDto addProductToCart(UUID cartId, Long productId) {
-        var cart = cartRepository.getCartWithItems(cartId).orElse(null);
-        if (cart == null) {
-            throw new CartNotFoundException();
+        return cartStore.addProduct(cartId, productId, this::toPricedDto);
+    }
+
+    public CartItemDto updateItemInCart(UUID cartId, Long productId, Integer quantity, Long expectedVersion) {
+        return cartStore.modify(cartId, expectedVersion, cart -> {
+            var cartItem = cart.getItem(productId);
+            if (cartItem == null) {
+                throw new ProductNotFoundException();
+            }
+
+            cartItem.setQuantity(quantity);
+
+            return toPricedDto(cartItem);
+        });
+    }
+
+    public void removeItemFromCart(UUID cartId, Long productId, Long expectedVersion) {
+        cartStore.modify(cartId, expectedVersion, cart -> {
+            cart.removeItem(productId);
+            return null;
+        });
+    }
+
+    public void clearCart(UUID cartId) {
+        cartStore.modify(cartId, cart -> {
+            cart.clearCart();
+            return null;
+        });
+    }
+
+    // Empties a cart once it was checked out. When it changed after the order was built from it, only the
+    // quantities that went into the order are taken out, so products added in the meantime are kept.
+    // The order id is recorded on the cart with the same change, so clearing for an order already handled is skipped.
+    public void clearCheckedOutItems(UUID cartId, Long orderId, Long checkedOutVersion, Map<Long, Integer> orderedQuantities) {
+        try {
+            cartStore.modify(cartId, checkedOutVersion, cart -> {
+                cart.clearCart();
+                cart.setCheckedOutOrderId(orderId);
+                return null;
+            });
+        } catch (CartConflictException e) {
+            cartStore.modify(cartId, cart -> {
+                // Order ids grow, so a marker at or past this order means it was cleared already.
+                if (cart.getCheckedOutOrderId() != null && cart.getCheckedOutOrderId() >= orderId) {
+                    return null;
+                }
+                orderedQuantities.forEach((productId, quantity) -> {
+                    var cartItem = cart.getItem(productId);
+                    if (cartItem == null) {
+                        return;
+                    }
+                    if (cartItem.getQuantity() > quantity) {
+                        cartItem.setQuantity(cartItem.getQuantity() - quantity);
+                    } else {
+                        cart.removeItem(productId);
+                    }
+                });
+                cart.setCheckedOutOrderId(orderId);
+                return null;
+            });
+        }
+    }
+
+    // Applies the operations in order as one change: all of them or, when one fails, none.
+    // Products to add are fetched in a single query before the cart is touched.
+    public CartDto updateCart(UUID cartId, List<CartOperationRequest> operations, Long expectedVersion) {
+        for (var operation : operations) {
+            if (operation.getOp() == CartOperationType.SET_QUANTITY && operation.getQuantity() == null) {
+                throw new InvalidCartOperationException();
+            }
         }
 
-        var product = productRepository.findById(productId).orElse(null);
-        if (product == null) {
+        var addedIds = operations.stream()
+                .filter(operation -> operation.getOp() == CartOperationType.ADD)
+                .map(CartOperationRequest::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, Product> products = addedIds.isEmpty()
+                ? Map.of()
+                : productRepository.findAllById(addedIds).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (products.size() != addedIds.size()) {
             throw new ProductNotFoundException();
         }
 
-        var cartItem = cart.addItem(product);
-        cartRepository.save(cart);
+        return cartStore.modify(cartId, expectedVersion, cart -> {
+            checkOperations(cart, operations);
+            for (var operation : operations) {
+                switch (operation.getOp()) {
+                    case ADD -> cart.addItem(products.get(operation.getProductId()));
+                    case SET_QUANTITY -> cart.getItem(operation.getProductId()).setQuantity(operation.getQuantity());
+                    case REMOVE -> cart.removeItem(operation.getProductId());
+                }
+            }
+            return toPricedDto(cart);
+        });
+    }
 
-        return cartMapper.toDto(cartItem);
+    // Replays the operations against the cart's product ids so nothing is changed when one of them would fail.
+    private void checkOperations(Cart cart, List<CartOperationRequest> operations) {
+        var present = new HashSet<Long>();
+        cart.getItems().forEach(item -> present.add(item.getProduct().getId()));
+
+        for (var operation : operations) {
+            switch (operation.getOp()) {
+                case ADD -> present.add(operation.getProductId());
+                case SET_QUANTITY -> {
+                    if (!present.contains(operation.getProductId())) {
+                        throw new ProductNotFoundException();
+                    }
+                }
+                case REMOVE -> present.remove(operation.getProductId());
+            }
+        }
     }
 
-    public CartItemDto updateItemInCart(UUID cartId, Long productId, Integer quantity) {
-        var cart = cartRepository.findById(cartId).orElse(null);
-        if (cart == null) {
-            throw new CartNotFoundException();
+    // Gives a customer who just logged in a single cart holding both their own and their guest cart's items,
+    // summing quantities of shared products. Returns that cart's id, or null when there is none.
+    public UUID mergeCarts(UUID guestCartId, Long customerId) {
+        // The merge runs in SQL, so pending changes to either cart are written and cached copies dropped first.
+        var knownCartId = cartRepository.findIdByCustomerId(customerId).orElse(null);
+        forget(guestCartId, knownCartId);
+
+        for (var attempt = 1; ; attempt++) {
+            try {
+                var cartId = transactionTemplate.execute(status -> mergeInto(guestCartId, customerId));
+                forget(guestCartId, cartId);
+                return cartId;
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent login claimed a cart for this customer first; the retry merges into that one.
+                if (attempt > 1) {
+                    throw e;
+                }
+            }
         }
+    }
 
-        var cartItem = cart.getItem(productId);
-        if (cartItem == null) {
-            throw new ProductNotFoundException();
+    private UUID mergeInto(UUID guestCartId, Long customerId) {
+        var customerCartId = cartRepository.findIdByCustomerId(customerId).orElse(null);
+        if (guestCartId == null || guestCartId.equals(customerCartId)) {
+            return customerCartId;
         }
 
-        cartItem.setQuantity(quantity);
-        cartRepository.save(cart);
+        if (customerCartId == null) {
+            return cartRepository.claimGuestCart(guestCartId, customerId) > 0 ? guestCartId : null;
+        }
 
-        return cartMapper.toDto(cartItem);
+        if (cartItemRepository.mergeGuestItems(guestCartId, customerCartId) > 0) {
+            cartRepository.incrementVersion(customerCartId);
+        }
+        cartRepository.deleteGuestCart(guestCartId);
+        return customerCartId;
     }
 
-    public void removeItemFromCart(UUID cartId, Long productId) {
-        var cart = cartRepository.findById(cartId).orElse(null);
-        if (cart == null) {
-            throw new CartNotFoundException();
+    private void forget(UUID... cartIds) {
+        for (var cartId : cartIds) {
+            if (cartId != null) {
+                cartStore.forget(cartId);
+            }
         }
+    }
 
-        cart.removeItem(productId);
-        cartRepository.save(cart);
+    private CartDto toPricedDto(Cart cart) {
+        return cartMapper.toDto(cart, cartPricingEngine.price(cart));
     }
 
-    public void clearCart(UUID cartId) {
-        var cart = cartRepository.findById(cartId).orElse(null);
-        if (cart == null) {
-            throw new CartNotFoundException();
-        }
+    private CartItemDto toPricedDto(CartItem cartItem) {
+        return cartMapper.toDto(cartItem, cartPricingEngine.priceLine(cartItem));
+    }
 
-        cart.clearCart();
-        cartRepository.save(cart);
+    public void flush(UUID cartId) {
+        cartStore.flush(cartId);
     }
 }
@@ -0,0 +1,40 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.dtos.CartStoreStats;
+import com.alopez.store.carts.dtos.CartSummaryDto;
+import com.alopez.store.carts.entities.Cart;
+import com.alopez.store.carts.entities.CartItem;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+/*
+ Where CartService keeps carts. The functions passed to read and modify run while the store owns the cart,
+ so they must not hold on to it afterwards. They, addProduct and summarize throw CartNotFoundException for unknown ids.
+ Every change bumps the cart's version. A modify given an expected version fails with CartConflictException
+ when the cart has moved on; without one, stores may re-apply the mutation to the latest version.
+ */
+public interface CartStore {
+    Cart create();
+
+    <T> T read(UUID cartId, Function<Cart, T> reader);
+
+    <T> T modify(UUID cartId, Long expectedVersion, Function<Cart, T> mutation);
+
+    default <T> T modify(UUID cartId, Function<Cart, T> mutation) {
+        return modify(cartId, null, mutation);
+    }
+
+    // Adds one unit of the product, throwing ProductNotFoundException when it does not exist.
+    <T> T addProduct(UUID cartId, Long productId, Function<CartItem, T> reader);
+
+    // Item count and subtotal, read without loading the cart's items when the store does not already hold them.
+    CartSummaryDto summarize(UUID cartId);
+
+    void flush(UUID cartId);
+
+    // Writes pending changes and drops any copy held in memory, so the next access reads the database.
+    void forget(UUID cartId);
+
+    CartStoreStats getStats();
+}
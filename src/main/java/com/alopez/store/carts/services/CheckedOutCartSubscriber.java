@@ -0,0 +1,48 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.exceptions.CartNotFoundException;
+import com.alopez.store.orders.dtos.OrderCheckedOutEvent;
+import com.alopez.store.orders.dtos.OrderEventType;
+import com.alopez.store.outbox.dtos.OutboxEvent;
+import com.alopez.store.outbox.services.OutboxSubscriber;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/*
+ Takes the checked-out items out of the cart once ORDER_CHECKED_OUT is relayed. A cart that is gone by then
+ (reaped or deleted) has nothing left to clear. A redelivered event is skipped by CartService, which records
+ the cleared order on the cart in the same change as the clear.
+ */
+@AllArgsConstructor
+@Component
+public class CheckedOutCartSubscriber implements OutboxSubscriber {
+    private final CartService cartService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void onEvent(OutboxEvent event) {
+        if (!OrderEventType.ORDER_CHECKED_OUT.name().equals(event.getEventType())) {
+            return;
+        }
+
+        OrderCheckedOutEvent checkedOut;
+        try {
+            checkedOut = objectMapper.readValue(event.getPayload(), OrderCheckedOutEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not an OrderCheckedOutEvent", e);
+        }
+
+        try {
+            cartService.clearCheckedOutItems(
+                    checkedOut.getCartId(),
+                    checkedOut.getOrderId(),
+                    checkedOut.getCartVersion(),
+                    checkedOut.getOrderedQuantities()
+            );
+        } catch (CartNotFoundException e) {
+            // Nothing to clear.
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.config.CartStoreConfig;
+import com.alopez.store.carts.dtos.CartStoreStats;
+import com.alopez.store.carts.dtos.CartSummaryDto;
+import com.alopez.store.carts.entities.Cart;
+import com.alopez.store.carts.entities.CartItem;
+import com.alopez.store.carts.exceptions.CartConflictException;
+import com.alopez.store.carts.exceptions.CartNotFoundException;
+import com.alopez.store.carts.repositories.CartItemRepository;
+import com.alopez.store.carts.repositories.CartRepository;
+import com.alopez.store.products.exceptions.ProductNotFoundException;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+/*
+ Writes every change straight through to the database.
+ A modify reads the cart without locking and then claims its version with a compare-and-set update, so of two
+ concurrent changes the later one sees zero rows and is re-applied to the fresh cart (up to maxRetries times).
+ With carts.store.upsertItems, adding a product is a single insert-or-increment on the (product_id, cart_id)
+ unique key followed by a read of the resulting row, so concurrent adds cannot overwrite each other.
+ */
+@Component
+@ConditionalOnProperty(prefix = "carts.store", name = "type", havingValue = "jpa", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CartStoreConfig config;
+
+    public JpaCartStore(CartRepository cartRepository,
+                        CartItemRepository cartItemRepository,
+                        ProductRepository productRepository,
+                        TransactionTemplate transactionTemplate,
+                        CartStoreConfig config) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.config = config;
+    }
+
+    @Override
+    public Cart create() {
+        return cartRepository.save(new Cart());
+    }
+
+    @Override
+    public <T> T read(UUID cartId, Function<Cart, T> reader) {
+        return reader.apply(load(cartId));
+    }
+
+    @Override
+    public <T> T modify(UUID cartId, Long expectedVersion, Function<Cart, T> mutation) {
+        // Inside a caller's transaction a retry would run on rolled-back state, so only own transactions retry.
+        var attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : config.getMaxRetries() + 1;
+        for (var attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    var cart = load(cartId);
+                    var version = cart.getVersion();
+                    if (expectedVersion != null && !expectedVersion.equals(version)) {
+                        throw new CartConflictException();
+                    }
+                    if (cartRepository.compareAndIncrementVersion(cartId, version) == 0) {
+                        throw new CartConflictException();
+                    }
+
+                    cart.setVersion(version + 1);
+                    var result = mutation.apply(cart);
+                    cartRepository.save(cart);
+                    return result;
+                });
+            } catch (CartConflictException e) {
+                // A change made against a version the client saw is a real conflict and is never re-applied.
+                if (expectedVersion != null || attempt >= attempts) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public <T> T addProduct(UUID cartId, Long productId, Function<CartItem, T> reader) {
+        if (!config.isUpsertItems()) {
+            return modify(cartId, cart -> {
+                var product = productRepository.findById(productId).orElseThrow(ProductNotFoundException::new);
+                return reader.apply(cart.addItem(product));
+            });
+        }
+
+        // Increments commute, so the version is bumped unconditionally instead of compared.
+        var cartItem = transactionTemplate.execute(status -> {
+            if (cartRepository.incrementVersion(cartId) == 0) {
+                throw new CartNotFoundException();
+            }
+            if (cartItemRepository.incrementQuantity(cartId, productId) == 0) {
+                throw new ProductNotFoundException();
+            }
+            return cartItemRepository.findWithProduct(cartId, productId).orElseThrow(ProductNotFoundException::new);
+        });
+        return reader.apply(cartItem);
+    }
+
+    @Override
+    public CartSummaryDto summarize(UUID cartId) {
+        return cartRepository.getCartSummary(cartId).orElseThrow(CartNotFoundException::new);
+    }
+
+    @Override
+    public void flush(UUID cartId) {
+        // Every change is already written by modify.
+    }
+
+    @Override
+    public void forget(UUID cartId) {
+        // Nothing is kept between calls.
+    }
+
+    @Override
+    public CartStoreStats getStats() {
+        return new CartStoreStats("jpa", 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    private Cart load(UUID cartId) {
+        return cartRepository.getCartWithItems(cartId).orElseThrow(CartNotFoundException::new);
+    }
+}
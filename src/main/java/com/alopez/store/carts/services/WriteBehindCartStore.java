@@ -0,0 +1,424 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.config.CartStoreConfig;
+import com.alopez.store.carts.dtos.CartStoreStats;
+import com.alopez.store.carts.dtos.CartSummaryDto;
+import com.alopez.store.carts.entities.Cart;
+import com.alopez.store.carts.entities.CartItem;
+import com.alopez.store.carts.exceptions.CartConflictException;
+import com.alopez.store.carts.exceptions.CartNotFoundException;
+import com.alopez.store.carts.repositories.CartRepository;
+import com.alopez.store.products.exceptions.ProductNotFoundException;
+import com.alopez.store.products.repositories.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/*
+ Keeps active carts in memory and writes them back in batches instead of on every change.
+ A cart is only read or changed inside its entry's monitor. A flush replaces all of a cart's rows in cart_items,
+ so it is idempotent, and the entry's flush lock keeps two flushes of the same cart from overtaking each other.
+ Changes made since the last flush are lost if the process dies; carts.store.flushInterval bounds that window.
+ Cached item prices are those seen when the cart was loaded; checkout always re-reads the cart after flushing it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "carts.store", name = "type", havingValue = "write-behind")
+public class WriteBehindCartStore implements CartStore {
+    private static final String UPDATE_CART = "UPDATE carts SET version = ?, checked_out_order_id = ? WHERE id = ?";
+    private static final String DELETE_ITEMS = "DELETE FROM cart_items WHERE cart_id = ?";
+    // Joining on carts and products skips rows whose cart or product was deleted since it was cached.
+    private static final String INSERT_ITEM = """
+            INSERT INTO cart_items (cart_id, product_id, quantity)
+            SELECT c.id, p.id, ? FROM carts c JOIN products p ON p.id = ? WHERE c.id = ?""";
+
+    private final CartRepository cartRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CartStoreConfig config;
+
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong flushedCarts = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile long lastFlushDurationMillis;
+
+    public WriteBehindCartStore(CartRepository cartRepository,
+                                ProductRepository productRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                CartStoreConfig config) {
+        this.cartRepository = cartRepository;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Flushes commit on their own so a caller's rollback can never undo rows already marked as written.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.config = config;
+    }
+
+    @Override
+    public Cart create() {
+        var cart = cartRepository.save(new Cart());
+        synchronized (entries) {
+            entries.put(cart.getId(), new Entry(cart));
+        }
+        evictOverflow();
+        return cart;
+    }
+
+    @Override
+    public <T> T read(UUID cartId, Function<Cart, T> reader) {
+        while (true) {
+            var entry = entry(cartId);
+            synchronized (entry) {
+                if (!entry.evicted) {
+                    entry.touch();
+                    return reader.apply(entry.cart);
+                }
+            }
+        }
+    }
+
+    @Override
+    public <T> T modify(UUID cartId, Long expectedVersion, Function<Cart, T> mutation) {
+        while (true) {
+            var entry = entry(cartId);
+            synchronized (entry) {
+                if (!entry.evicted) {
+                    var cartVersion = entry.cart.getVersion();
+                    if (expectedVersion != null && !expectedVersion.equals(cartVersion)) {
+                        throw new CartConflictException();
+                    }
+
+                    entry.cart.setVersion(cartVersion + 1);
+                    try {
+                        var result = mutation.apply(entry.cart);
+                        entry.markDirty();
+                        return result;
+                    } catch (RuntimeException e) {
+                        entry.cart.setVersion(cartVersion);
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public <T> T addProduct(UUID cartId, Long productId, Function<CartItem, T> reader) {
+        // Unknown carts fail before the product lookup, which runs outside the entry's monitor.
+        entry(cartId);
+        var product = productRepository.findById(productId).orElseThrow(ProductNotFoundException::new);
+        return modify(cartId, cart -> reader.apply(cart.addItem(product)));
+    }
+
+    @Override
+    public CartSummaryDto summarize(UUID cartId) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(cartId);
+        }
+        if (entry != null) {
+            synchronized (entry) {
+                if (!entry.evicted) {
+                    var itemCount = entry.cart.getItems().stream().mapToLong(CartItem::getQuantity).sum();
+                    return new CartSummaryDto(cartId, entry.cart.getVersion(), itemCount, entry.cart.getTotalPrice());
+                }
+            }
+        }
+
+        // Uncached carts are summarised in the database rather than loaded; evicted ones were written back first.
+        return cartRepository.getCartSummary(cartId).orElseThrow(CartNotFoundException::new);
+    }
+
+    @Override
+    public void flush(UUID cartId) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(cartId);
+        }
+        if (entry == null) {
+            return;
+        }
+
+        entry.flushLock.lock();
+        try {
+            writeBack(List.of(entry));
+        } finally {
+            entry.flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void forget(UUID cartId) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(cartId);
+        }
+        if (entry == null) {
+            return;
+        }
+
+        entry.flushLock.lock();
+        try {
+            while (true) {
+                writeBack(List.of(entry));
+                synchronized (entry) {
+                    if (!entry.dirty) {
+                        remove(entry);
+                        return;
+                    }
+                }
+            }
+        } finally {
+            entry.flushLock.unlock();
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${carts.store.flushInterval:1000}",
+            fixedDelayString = "${carts.store.flushInterval:1000}"
+    )
+    public void flushDirty() {
+        var startedAt = System.nanoTime();
+        var idleBefore = startedAt - config.getIdleTimeout() * 1_000_000;
+
+        var dirty = new ArrayList<Entry>();
+        var idle = new ArrayList<Entry>();
+        for (var entry : snapshotEntries()) {
+            if (entry.dirty) {
+                dirty.add(entry);
+            } else if (entry.lastAccess < idleBefore) {
+                idle.add(entry);
+            }
+        }
+
+        writeBackInBatches(dirty);
+        idle.forEach(this::evict);
+        lastFlushDurationMillis = (System.nanoTime() - startedAt) / 1_000_000;
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        writeBackInBatches(snapshotEntries().stream().filter(entry -> entry.dirty).toList());
+    }
+
+    @Override
+    public CartStoreStats getStats() {
+        var snapshot = snapshotEntries();
+        var now = System.nanoTime();
+        var dirtyCarts = 0;
+        long oldestDirtyAge = 0;
+        for (var entry : snapshot) {
+            if (entry.dirty) {
+                dirtyCarts++;
+                oldestDirtyAge = Math.max(oldestDirtyAge, now - entry.dirtySince);
+            }
+        }
+
+        return new CartStoreStats(
+                "write-behind",
+                snapshot.size(),
+                dirtyCarts,
+                oldestDirtyAge / 1_000_000,
+                flushedCarts.get(),
+                flushFailures.get(),
+                evictions.get(),
+                lastFlushDurationMillis
+        );
+    }
+
+    private Entry entry(UUID cartId) {
+        while (true) {
+            long seenEvictions;
+            synchronized (entries) {
+                var entry = entries.get(cartId);
+                if (entry != null) {
+                    return entry;
+                }
+                seenEvictions = evictions.get();
+            }
+
+            var cart = cartRepository.getCartWithItems(cartId).orElseThrow(CartNotFoundException::new);
+
+            Entry entry;
+            synchronized (entries) {
+                entry = entries.get(cartId);
+                if (entry == null) {
+                    // An eviction since our read may have written newer rows than the ones we loaded.
+                    if (evictions.get() != seenEvictions) {
+                        continue;
+                    }
+                    entry = new Entry(cart);
+                    entries.put(cartId, entry);
+                }
+            }
+            evictOverflow();
+            return entry;
+        }
+    }
+
+    private void evictOverflow() {
+        List<Entry> eldest;
+        synchronized (entries) {
+            var overflow = entries.size() - config.getMaxCarts();
+            if (overflow <= 0) {
+                return;
+            }
+            eldest = entries.values().stream().limit(overflow).toList();
+        }
+        eldest.forEach(this::evict);
+    }
+
+    private void evict(Entry entry) {
+        entry.flushLock.lock();
+        try {
+            writeBack(List.of(entry));
+            synchronized (entry) {
+                if (!entry.dirty) {
+                    remove(entry);
+                }
+            }
+        } catch (DataAccessException | TransactionException e) {
+            // Keep the cart in memory; the next flush retries it.
+        } finally {
+            entry.flushLock.unlock();
+        }
+    }
+
+    // Callers hold the entry's monitor.
+    private void remove(Entry entry) {
+        synchronized (entries) {
+            if (entries.remove(entry.cart.getId(), entry)) {
+                evictions.incrementAndGet();
+            }
+        }
+        entry.evicted = true;
+    }
+
+    private void writeBackInBatches(List<Entry> dirty) {
+        for (var from = 0; from < dirty.size(); from += config.getFlushBatchSize()) {
+            var locked = new ArrayList<Entry>();
+            for (var entry : dirty.subList(from, Math.min(from + config.getFlushBatchSize(), dirty.size()))) {
+                // A cart already being flushed by someone else is skipped and picked up next time.
+                if (entry.flushLock.tryLock()) {
+                    locked.add(entry);
+                }
+            }
+
+            try {
+                writeBack(locked);
+            } catch (DataAccessException | TransactionException e) {
+                // The carts stay dirty and are retried on the next flush.
+            } finally {
+                locked.forEach(entry -> entry.flushLock.unlock());
+            }
+        }
+    }
+
+    // Callers hold the flush lock of every entry passed in.
+    private void writeBack(List<Entry> batch) {
+        var snapshots = batch.stream()
+                .map(Entry::snapshot)
+                .filter(Objects::nonNull)
+                .toList();
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPDATE_CART, snapshots.stream()
+                        .map(snapshot -> new Object[]{snapshot.cartVersion(), snapshot.checkedOutOrderId(), snapshot.cartId()})
+                        .toList());
+                jdbcTemplate.batchUpdate(DELETE_ITEMS, snapshots.stream()
+                        .map(snapshot -> new Object[]{snapshot.cartId()})
+                        .toList());
+                jdbcTemplate.batchUpdate(INSERT_ITEM, snapshots.stream()
+                        .flatMap(snapshot -> snapshot.rows().stream())
+                        .toList());
+            });
+        } catch (DataAccessException | TransactionException e) {
+            flushFailures.addAndGet(snapshots.size());
+            throw e;
+        }
+
+        snapshots.forEach(snapshot -> snapshot.entry().markClean(snapshot.version()));
+        flushedCarts.addAndGet(snapshots.size());
+    }
+
+    private List<Entry> snapshotEntries() {
+        synchronized (entries) {
+            return List.copyOf(entries.values());
+        }
+    }
+
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    private static final class Entry {
+        private final Cart cart;
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private long version;
+        private boolean evicted;
+        private volatile boolean dirty;
+        private volatile long dirtySince;
+        private volatile long lastAccess = System.nanoTime();
+
+        private Entry(Cart cart) {
+            this.cart = cart;
+        }
+
+        private void touch() {
+            lastAccess = System.nanoTime();
+        }
+
+        private void markDirty() {
+            version++;
+            if (!dirty) {
+                dirtySince = System.nanoTime();
+                dirty = true;
+            }
+            touch();
+        }
+
+        private synchronized Snapshot snapshot() {
+            if (!dirty) {
+                return null;
+            }
+
+            var cartId = toBytes(cart.getId());
+            var rows = cart.getItems().stream()
+                    .map(item -> new Object[]{item.getQuantity(), item.getProduct().getId(), cartId})
+                    .toList();
+            return new Snapshot(this, version, cart.getVersion(), cart.getCheckedOutOrderId(), cartId, rows);
+        }
+
+        private synchronized void markClean(long flushedVersion) {
+            if (version == flushedVersion) {
+                dirty = false;
+            }
+        }
+    }
+
+    private record Snapshot(Entry entry, long version, long cartVersion, Long checkedOutOrderId, byte[] cartId, List<Object[]> rows) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.alopez.store.common.ids;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/*
+ Version 7 UUIDs (RFC 9562): 48 bits of Unix milliseconds, then a 12-bit counter, then 62 random bits.
+ Stored as binary(16) they sort by creation time, so new rows are appended at the end of a primary key index
+ instead of splitting pages all over it. Within one millisecond the counter keeps ids from this JVM increasing;
+ when it runs out, or the clock steps back, the timestamp is advanced past the last one handed out.
+ */
+public class TimeOrderedUuidGenerator implements IdentifierGenerator {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int MAX_COUNTER = 0xFFF;
+
+    private static long lastMillis;
+    private static int counter;
+
+    public static UUID next() {
+        long millis;
+        int sequence;
+        synchronized (TimeOrderedUuidGenerator.class) {
+            var now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                // Start in the lower half so a busy millisecond still has room to count up.
+                counter = RANDOM.nextInt(MAX_COUNTER / 2);
+            } else if (++counter > MAX_COUNTER) {
+                lastMillis++;
+                counter = 0;
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+
+        var mostSignificantBits = (millis << 16) | 0x7000L | sequence;
+        var leastSignificantBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return next();
+    }
+}
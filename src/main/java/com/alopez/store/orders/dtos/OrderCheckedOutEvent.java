@@ -0,0 +1,22 @@
+package com.alopez.store.orders.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+/*
+ Outbox payload published once the checkout session was created: the cart the order was built from, the cart
+ version it was read at and the quantity of each product that went into the order.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class OrderCheckedOutEvent {
+    private Long orderId;
+    private UUID cartId;
+    private Long cartVersion;
+    private Map<Long, Integer> orderedQuantities;
+}
@@ -0,0 +1,27 @@
+package com.alopez.store.orders.dtos;
+
+import com.alopez.store.orders.entities.Order;
+import com.alopez.store.orders.entities.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/*
+ Outbox payload for order events: the order as it stands once the event's transaction commits.
+ */
+@AllArgsConstructor
+@Getter
+public class OrderEvent {
+    public static final String AGGREGATE_TYPE = "order";
+
+    private Long orderId;
+    private Long customerId;
+    private PaymentStatus status;
+    private BigDecimal totalPrice;
+
+    public static OrderEvent of(Order order) {
+        var customerId = order.getCustomer() != null ? order.getCustomer().getId() : null;
+        return new OrderEvent(order.getId(), customerId, order.getStatus(), order.getTotalPrice());
+    }
+}
@@ -0,0 +1,8 @@
+package com.alopez.store.orders.dtos;
+
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_CHECKED_OUT,
+    ORDER_STATUS_CHANGED,
+    ORDER_DELETED
+}
@@ -1,5 +1,6 @@
 package com.alopez.store.orders.entities;
 
+import com.alopez.store.carts.dtos.PricedCart;
 import com.alopez.store.carts.entities.Cart;
 import com.alopez.store.users.entities.User;
 import jakarta.persistence.*;
@@ -42,14 +43,15 @@ public class Order {
         return this.customer.equals(customer);
     }
 
-    public static Order fromCart(Cart cart, User customer) {
+    public static Order fromCart(Cart cart, PricedCart pricing, User customer) {
         var order = new Order();
         order.setCustomer(customer);
         order.setStatus(PaymentStatus.PENDING);
-        order.setTotalPrice(cart.getTotalPrice());
+        order.setTotalPrice(pricing.getTotal());
 
         cart.getItems().forEach(item -> {
-            var orderItem = new OrderItem(order, item.getProduct(), item.getQuantity());
+            var line = pricing.getLine(item.getProduct().getId());
+            var orderItem = new OrderItem(order, item.getProduct(), item.getQuantity(), line.getTotal());
             order.items.add(orderItem);
         });
 
@@ -36,11 +36,11 @@ public class OrderItem {
     @JoinColumn(name = "product_id")
     private Product product;
 
-    public OrderItem(Order order, Product product, Integer quantity) {
+    public OrderItem(Order order, Product product, Integer quantity, BigDecimal totalPrice) {
         this.order = order;
         this.product = product;
         this.quantity = quantity;
         this.unitPrice = product.getPrice();
-        this.totalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        this.totalPrice = totalPrice;
     }
 }
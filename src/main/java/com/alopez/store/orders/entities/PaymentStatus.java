@@ -1,8 +1,25 @@
 package com.alopez.store.orders.entities;
 
+import java.util.Arrays;
+import java.util.List;
+
 public enum PaymentStatus {
     PENDING,
     PAID,
     FAILED,
-    CANCELLED
+    CANCELLED;
+
+    // Statuses only move forward: a failed payment can still succeed, but paid and cancelled orders are final,
+    // so a late or redelivered event can never undo them.
+    public boolean canTransitionTo(PaymentStatus next) {
+        return switch (this) {
+            case PENDING -> next != PENDING;
+            case FAILED -> next == PAID || next == CANCELLED;
+            case PAID, CANCELLED -> false;
+        };
+    }
+
+    public List<PaymentStatus> predecessors() {
+        return Arrays.stream(values()).filter(status -> status.canTransitionTo(this)).toList();
+    }
 }
@@ -0,0 +1,16 @@
+package com.alopez.store.outbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "outbox.relay")
+@Data
+public class OutboxConfig {
+    private boolean enabled = true;
+    private int batchSize = 100;
+    private int maxBatchesPerRun = 10;
+    private int maxAttempts = 10;
+    private long interval = 1000;
+}
@@ -0,0 +1,12 @@
+package com.alopez.store.outbox.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class OutboxBacklog {
+    private long pendingEvents;
+    private long parkedEvents;
+    private long oldestPendingAgeMillis;
+}
@@ -0,0 +1,20 @@
+package com.alopez.store.outbox.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Getter
+public class OutboxEvent {
+    private Long id;
+    private String aggregateType;
+    private String aggregateId;
+    private String eventType;
+    private String payload;
+    private LocalDateTime createdAt;
+    private int attempts;
+    // How long the event had been waiting when the relay fetched it, measured by the database clock.
+    private long ageMillis;
+}
@@ -0,0 +1,17 @@
+package com.alopez.store.outbox.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class OutboxRelayStats {
+    private long pendingEvents;
+    private long parkedEvents;
+    private long oldestPendingAgeMillis;
+    private long runs;
+    private long publishedEvents;
+    private long failedDeliveries;
+    private long lastRunPublishedEvents;
+    private long lastPublishedLagMillis;
+}
@@ -0,0 +1,73 @@
+package com.alopez.store.outbox.repositories;
+
+import com.alopez.store.outbox.dtos.OutboxBacklog;
+import com.alopez.store.outbox.dtos.OutboxEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class OutboxEventRepository {
+    private static final String INSERT = """
+            INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload)
+            VALUES (?, ?, ?, ?)""";
+
+    private static final String FIND_BATCH = """
+            SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at, attempts,
+                   TIMESTAMPDIFF(MICROSECOND, created_at, CURRENT_TIMESTAMP(6)) DIV 1000 AS age_millis
+            FROM outbox_events
+            WHERE attempts < ?
+            ORDER BY id
+            LIMIT ?""";
+
+    private static final String INCREMENT_ATTEMPTS = "UPDATE outbox_events SET attempts = attempts + 1 WHERE id = ?";
+
+    private static final String BACKLOG = """
+            SELECT COALESCE(SUM(attempts < ?), 0) AS pending,
+                   COALESCE(SUM(attempts >= ?), 0) AS parked,
+                   COALESCE(TIMESTAMPDIFF(MICROSECOND, MIN(CASE WHEN attempts < ? THEN created_at END),
+                                          CURRENT_TIMESTAMP(6)) DIV 1000, 0) AS oldest_age_millis
+            FROM outbox_events""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxEventRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(String aggregateType, String aggregateId, String eventType, String payload) {
+        jdbcTemplate.update(INSERT, aggregateType, aggregateId, eventType, payload);
+    }
+
+    public List<OutboxEvent> findBatch(int maxAttempts, int limit) {
+        return jdbcTemplate.query(FIND_BATCH, (rs, rowNum) -> new OutboxEvent(
+                rs.getLong("id"),
+                rs.getString("aggregate_type"),
+                rs.getString("aggregate_id"),
+                rs.getString("event_type"),
+                rs.getString("payload"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getInt("attempts"),
+                rs.getLong("age_millis")
+        ), maxAttempts, limit);
+    }
+
+    public int deleteByIds(List<Long> ids) {
+        var placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.update("DELETE FROM outbox_events WHERE id IN (" + placeholders + ")", ids.toArray());
+    }
+
+    public void incrementAttempts(Long id) {
+        jdbcTemplate.update(INCREMENT_ATTEMPTS, id);
+    }
+
+    public OutboxBacklog getBacklog(int maxAttempts) {
+        return jdbcTemplate.queryForObject(BACKLOG, (rs, rowNum) -> new OutboxBacklog(
+                rs.getLong("pending"),
+                rs.getLong("parked"),
+                rs.getLong("oldest_age_millis")
+        ), maxAttempts, maxAttempts, maxAttempts);
+    }
+}
@@ -0,0 +1,106 @@
+package com.alopez.store.outbox.services;
+
+import com.alopez.store.outbox.config.OutboxConfig;
+import com.alopez.store.outbox.dtos.OutboxEvent;
+import com.alopez.store.outbox.dtos.OutboxRelayStats;
+import com.alopez.store.outbox.repositories.OutboxEventRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Polls outbox_events in id order and hands each event to every subscriber, deleting events once all of them
+ have taken it. Delivered rows are deleted rather than tracked by a high-water mark, so an event whose
+ transaction commits after a higher id was relayed is still picked up on the next poll.
+ A failing event stops its batch, keeping later events behind it; after maxAttempts failures it is parked
+ (left in the table and skipped) so it cannot hold up the rest forever.
+ Without any subscriber nothing is relayed, so events are kept until one exists instead of being dropped.
+ */
+@Component
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSubscriber> subscribers;
+    private final OutboxConfig config;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong publishedEvents = new AtomicLong();
+    private final AtomicLong failedDeliveries = new AtomicLong();
+    private volatile long lastRunPublishedEvents;
+    private volatile long lastPublishedLagMillis;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxSubscriber> subscribers,
+                       OutboxConfig config) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.subscribers = subscribers;
+        this.config = config;
+    }
+
+    @Scheduled(
+            initialDelayString = "${outbox.relay.interval:1000}",
+            fixedDelayString = "${outbox.relay.interval:1000}"
+    )
+    public synchronized void relay() {
+        if (!config.isEnabled() || subscribers.isEmpty()) {
+            return;
+        }
+
+        long published = 0;
+        try {
+            for (var batch = 0; batch < config.getMaxBatchesPerRun(); batch++) {
+                var events = outboxEventRepository.findBatch(config.getMaxAttempts(), config.getBatchSize());
+                var delivered = new ArrayList<Long>(events.size());
+                var failed = false;
+
+                for (var event : events) {
+                    if (!deliver(event)) {
+                        failed = true;
+                        break;
+                    }
+                    delivered.add(event.getId());
+                    lastPublishedLagMillis = event.getAgeMillis();
+                }
+
+                if (!delivered.isEmpty()) {
+                    outboxEventRepository.deleteByIds(delivered);
+                    published += delivered.size();
+                    publishedEvents.addAndGet(delivered.size());
+                }
+                if (failed || events.size() < config.getBatchSize()) {
+                    break;
+                }
+            }
+        } finally {
+            runs.incrementAndGet();
+            lastRunPublishedEvents = published;
+        }
+    }
+
+    private boolean deliver(OutboxEvent event) {
+        try {
+            subscribers.forEach(subscriber -> subscriber.onEvent(event));
+            return true;
+        } catch (RuntimeException e) {
+            failedDeliveries.incrementAndGet();
+            outboxEventRepository.incrementAttempts(event.getId());
+            return false;
+        }
+    }
+
+    public OutboxRelayStats getStats() {
+        var backlog = outboxEventRepository.getBacklog(config.getMaxAttempts());
+        return new OutboxRelayStats(
+                backlog.getPendingEvents(),
+                backlog.getParkedEvents(),
+                backlog.getOldestPendingAgeMillis(),
+                runs.get(),
+                publishedEvents.get(),
+                failedDeliveries.get(),
+                lastRunPublishedEvents,
+                lastPublishedLagMillis
+        );
+    }
+}
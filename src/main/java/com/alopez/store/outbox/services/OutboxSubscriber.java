@@ -0,0 +1,11 @@
+package com.alopez.store.outbox.services;
+
+import com.alopez.store.outbox.dtos.OutboxEvent;
+
+/*
+ Receives every event the relay publishes, in outbox order. Delivery is at least once: an event is delivered
+ again when any subscriber throws or the relay stops before deleting it, so implementations must be idempotent.
+ */
+public interface OutboxSubscriber {
+    void onEvent(OutboxEvent event);
+}
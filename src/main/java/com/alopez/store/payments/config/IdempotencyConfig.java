@@ -0,0 +1,15 @@
+package com.alopez.store.payments.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "checkout.idempotency")
+@Data
+public class IdempotencyConfig {
+    private long ttl = 86400000;
+    private int maxEntries = 100000;
+    private long waitTimeout = 30000;
+    private int maxKeyLength = 255;
+}
@@ -0,0 +1,15 @@
+package com.alopez.store.payments.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "payments.webhooks.ledger")
+@Data
+public class WebhookLedgerConfig {
+    private int cacheSize = 100000;
+    private int retentionDays = 7;
+    private int pruneChunkSize = 1000;
+    private long pruneInterval = 3600000;
+}
@@ -0,0 +1,17 @@
+package com.alopez.store.payments.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "payments.webhooks")
+@Data
+public class WebhookQueueConfig {
+    private int workers = 2;
+    private int batchSize = 100;
+    private long maxQueueDepth = 10000;
+    private long pollInterval = 200;
+    private long claimTimeout = 60000;
+    private long depthResyncInterval = 5000;
+}
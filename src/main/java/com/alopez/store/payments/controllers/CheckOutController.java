@@ -5,11 +5,16 @@ import com.alopez.store.carts.exceptions.CartEmptyException;
 import com.alopez.store.carts.exceptions.CartNotFoundException;
 import com.alopez.store.payments.dtos.CheckOutRequest;
 import com.alopez.store.payments.dtos.CheckOutResponse;
+import com.alopez.store.payments.exceptions.IdempotencyKeyInProgressException;
+import com.alopez.store.payments.exceptions.IdempotencyKeyReusedException;
+import com.alopez.store.payments.exceptions.InvalidIdempotencyKeyException;
 import com.alopez.store.payments.exceptions.PaymentException;
+import com.alopez.store.payments.exceptions.WebhookQueueFullException;
 import com.alopez.store.payments.services.CheckOutService;
 import com.alopez.store.payments.dtos.WebhookRequest;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,9 +29,12 @@ public class CheckOutController {
 
     @PostMapping
     public ResponseEntity<CheckOutResponse> checkout(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CheckOutRequest request
     ) {
-        var checkOutResponse = checkOutService.checkOut(request);
+        var checkOutResponse = idempotencyKey == null
+                ? checkOutService.checkOut(request)
+                : checkOutService.checkOut(request, idempotencyKey);
         return ResponseEntity.ok(checkOutResponse);
     }
 
@@ -43,6 +51,28 @@ public class CheckOutController {
         return ResponseEntity.badRequest().body(new ErrorDto(ex.getMessage()));
     }
 
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<ErrorDto> handleInvalidIdempotencyKey(Exception ex) {
+        return ResponseEntity.badRequest().body(new ErrorDto(ex.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorDto> handleIdempotencyKeyReused(Exception ex) {
+        return ResponseEntity.unprocessableEntity().body(new ErrorDto(ex.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ErrorDto> handleIdempotencyKeyInProgress(Exception ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorDto(ex.getMessage()));
+    }
+
+    @ExceptionHandler(WebhookQueueFullException.class)
+    public ResponseEntity<ErrorDto> handleWebhookQueueFull(Exception ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(new ErrorDto(ex.getMessage()));
+    }
+
     @ExceptionHandler(PaymentException.class)
     public ResponseEntity<ErrorDto> handlePaymentException(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
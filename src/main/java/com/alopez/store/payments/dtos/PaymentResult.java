@@ -9,4 +9,10 @@ import lombok.Getter;
 public class PaymentResult {
     private Long orderId;
     private PaymentStatus paymentStatus;
+    // The provider's id for the event, used to drop redeliveries; null when the provider has none.
+    private String eventId;
+
+    public PaymentResult(Long orderId, PaymentStatus paymentStatus) {
+        this(orderId, paymentStatus, null);
+    }
 }
@@ -0,0 +1,21 @@
+package com.alopez.store.payments.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class WebhookQueueStats {
+    private long queueDepth;
+    private long maxQueueDepth;
+    private int workers;
+    private long enqueuedEvents;
+    private long rejectedEvents;
+    private long duplicateEvents;
+    private long staleEvents;
+    private long appliedEvents;
+    private long unknownOrders;
+    private long batches;
+    private long failedBatches;
+    private long lastBatchDurationMillis;
+}
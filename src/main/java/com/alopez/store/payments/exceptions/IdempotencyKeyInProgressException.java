@@ -0,0 +1,5 @@
+package com.alopez.store.payments.exceptions;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException() { super("A request with this Idempotency-Key is still in progress, please retry later!");}
+}
@@ -0,0 +1,5 @@
+package com.alopez.store.payments.exceptions;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException() { super("Idempotency-Key was already used for a different cart!");}
+}
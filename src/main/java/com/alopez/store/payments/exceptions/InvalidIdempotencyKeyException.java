@@ -0,0 +1,5 @@
+package com.alopez.store.payments.exceptions;
+
+public class InvalidIdempotencyKeyException extends RuntimeException {
+    public InvalidIdempotencyKeyException() { super("Invalid Idempotency-Key!");}
+}
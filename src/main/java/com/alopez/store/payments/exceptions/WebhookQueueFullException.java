@@ -0,0 +1,5 @@
+package com.alopez.store.payments.exceptions;
+
+public class WebhookQueueFullException extends RuntimeException {
+    public WebhookQueueFullException() { super("Too many pending webhook events, please retry later!");}
+}
@@ -0,0 +1,134 @@
+package com.alopez.store.payments.repositories;
+
+import com.alopez.store.orders.dtos.OrderEvent;
+import com.alopez.store.orders.entities.PaymentStatus;
+import com.alopez.store.payments.dtos.PaymentResult;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class PaymentWebhookEventRepository {
+    private static final String INSERT = "INSERT INTO payment_webhook_events (order_id, status) VALUES (?, ?)";
+
+    // Stale claims belong to a worker that died mid-batch and are taken over.
+    // Orders with events under a live claim are skipped, so a newer event is never applied before an older one
+    // that is still being applied or waits for its failed batch's claim to time out. The busy orders are read
+    // through a derived table because MySQL cannot select from the table an UPDATE modifies.
+    private static final String CLAIM = """
+            UPDATE payment_webhook_events
+            SET claimed_by = ?, claimed_at = CURRENT_TIMESTAMP(6)
+            WHERE order_id MOD ? = ?
+              AND (claimed_by IS NULL OR claimed_at < CURRENT_TIMESTAMP(6) - INTERVAL ? MICROSECOND)
+              AND order_id NOT IN (
+                  SELECT order_id FROM (
+                      SELECT order_id FROM payment_webhook_events
+                      WHERE claimed_by IS NOT NULL
+                        AND claimed_at >= CURRENT_TIMESTAMP(6) - INTERVAL ? MICROSECOND
+                  ) AS busy
+              )
+            ORDER BY id
+            LIMIT ?""";
+
+    private static final String FIND_CLAIMED = """
+            SELECT order_id, status FROM payment_webhook_events
+            WHERE claimed_by = ?
+            ORDER BY id""";
+
+    private static final String DELETE_CLAIMED = "DELETE FROM payment_webhook_events WHERE claimed_by = ?";
+
+    private static final String COUNT = "SELECT COUNT(*) FROM payment_webhook_events";
+
+    private static final String INSERT_PROCESSED = "INSERT IGNORE INTO processed_webhook_events (event_id) VALUES (?)";
+
+    private static final String DELETE_PROCESSED_BEFORE = """
+            DELETE FROM processed_webhook_events
+            WHERE processed_at < CURRENT_TIMESTAMP(6) - INTERVAL ? DAY
+            ORDER BY processed_at
+            LIMIT ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentWebhookEventRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(PaymentResult paymentResult) {
+        jdbcTemplate.update(INSERT, paymentResult.getOrderId(), paymentResult.getPaymentStatus().name());
+    }
+
+    public int claim(String claimToken, int shard, int shards, long claimTimeoutMillis, int limit) {
+        return jdbcTemplate.update(CLAIM, claimToken, shards, shard, claimTimeoutMillis * 1000, claimTimeoutMillis * 1000, limit);
+    }
+
+    public List<PaymentResult> findClaimed(String claimToken) {
+        return jdbcTemplate.query(FIND_CLAIMED, (rs, rowNum) -> new PaymentResult(
+                rs.getLong("order_id"),
+                PaymentStatus.valueOf(rs.getString("status"))
+        ), claimToken);
+    }
+
+    public int deleteClaimed(String claimToken) {
+        return jdbcTemplate.update(DELETE_CLAIMED, claimToken);
+    }
+
+    public long count() {
+        var count = jdbcTemplate.queryForObject(COUNT, Long.class);
+        return count != null ? count : 0;
+    }
+
+    // Zero when the event id was already recorded; the duplicate key is ignored rather than written.
+    public int insertProcessedEvent(String eventId) {
+        return jdbcTemplate.update(INSERT_PROCESSED, eventId);
+    }
+
+    public int deleteProcessedEventsOlderThan(int days, int limit) {
+        return jdbcTemplate.update(DELETE_PROCESSED_BEFORE, days, limit);
+    }
+
+    // Locks the orders until the batch commits, so their statuses cannot change between this read and the update.
+    public List<OrderEvent> lockOrders(Collection<Long> orderIds) {
+        return jdbcTemplate.query(
+                "SELECT id, customer_id, status, total_price FROM orders WHERE id IN (" + placeholders(orderIds.size()) + ") FOR UPDATE",
+                (rs, rowNum) -> new OrderEvent(
+                        rs.getLong("id"),
+                        rs.getObject("customer_id", Long.class),
+                        PaymentStatus.valueOf(rs.getString("status")),
+                        rs.getBigDecimal("total_price")
+                ),
+                orderIds.toArray());
+    }
+
+    // One statement for the whole batch: SET status = CASE id WHEN ? THEN ? ... END, where each order is only
+    // matched while its current status may still move to the new one, so a transition can never go backwards.
+    public int updateOrderStatuses(Map<Long, PaymentStatus> statuses) {
+        var sql = new StringBuilder("UPDATE orders SET status = CASE id");
+        var args = new ArrayList<Object>();
+        statuses.forEach((orderId, status) -> {
+            sql.append(" WHEN ? THEN ?");
+            args.add(orderId);
+            args.add(status.name());
+        });
+        sql.append(" END WHERE ");
+
+        var first = true;
+        for (var entry : statuses.entrySet()) {
+            var predecessors = entry.getValue().predecessors();
+            sql.append(first ? "" : " OR ")
+                    .append("(id = ? AND status IN (").append(placeholders(predecessors.size())).append("))");
+            args.add(entry.getKey());
+            predecessors.forEach(predecessor -> args.add(predecessor.name()));
+            first = false;
+        }
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -2,18 +2,27 @@ package com.alopez.store.payments.services;
 
 import com.alopez.store.payments.dtos.CheckOutRequest;
 import com.alopez.store.payments.dtos.CheckOutResponse;
+import com.alopez.store.payments.dtos.CheckoutSession;
+import com.alopez.store.orders.dtos.OrderCheckedOutEvent;
+import com.alopez.store.orders.dtos.OrderEvent;
+import com.alopez.store.orders.dtos.OrderEventType;
 import com.alopez.store.orders.entities.Order;
 import com.alopez.store.carts.exceptions.CartEmptyException;
 import com.alopez.store.carts.exceptions.CartNotFoundException;
 import com.alopez.store.payments.dtos.WebhookRequest;
-import com.alopez.store.payments.exceptions.PaymentException;
 import com.alopez.store.carts.repositories.CartRepository;
 import com.alopez.store.orders.repositories.OrderRepository;
 import com.alopez.store.auth.services.AuthService;
+import com.alopez.store.carts.services.CartPricingEngine;
 import com.alopez.store.carts.services.CartService;
-import jakarta.transaction.Transactional;
+import com.alopez.store.outbox.services.OutboxService;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Service
@@ -23,10 +32,60 @@ public class CheckOutService {
     private final PaymentGateway paymentGateway;
     private final AuthService authService;
     private final CartService cartService;
+    private final CartPricingEngine cartPricingEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
+    private final IdempotencyStore idempotencyStore;
+    private final PaymentWebhookQueue paymentWebhookQueue;
 
-    @Transactional
+    // Runs in three phases so no database connection is held while the payment provider is called:
+    // a short transaction stores the order as PENDING, the checkout session is created outside any transaction,
+    // and then ORDER_CHECKED_OUT is published for the cart to be cleared or, when the provider fails,
+    // the order is deleted again.
     public CheckOutResponse checkOut(CheckOutRequest request) {
-        var cart = cartRepository.getCartWithItems(request.getCartId()).orElse(null);
+        // The order is built from the stored cart, so pending cart changes are written first.
+        cartService.flush(request.getCartId());
+
+        var placedOrder = transactionTemplate.execute(status -> createOrder(request.getCartId()));
+        var order = placedOrder.order();
+
+        CheckoutSession checkoutSession;
+        try {
+            checkoutSession = paymentGateway.createCheckoutSession(order);
+        } catch (RuntimeException ex) {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderRepository.delete(order);
+                outboxService.publish(OrderEvent.AGGREGATE_TYPE, order.getId(), OrderEventType.ORDER_DELETED.name(), OrderEvent.of(order));
+            });
+            throw ex;
+        }
+
+        // CheckedOutCartSubscriber clears the cart from the relay, so a failure there does not fail a checkout
+        // whose session already exists.
+        var checkedOut = new OrderCheckedOutEvent(order.getId(), request.getCartId(), placedOrder.cartVersion(), orderedQuantities(order));
+        transactionTemplate.executeWithoutResult(status -> outboxService.publish(
+                OrderEvent.AGGREGATE_TYPE,
+                order.getId(),
+                OrderEventType.ORDER_CHECKED_OUT.name(),
+                checkedOut
+        ));
+
+        return new CheckOutResponse(order.getId(), checkoutSession.getCheckoutUrl());
+    }
+
+    // A retry with the same Idempotency-Key gets the first attempt's response without touching the database
+    // or the payment provider; one arriving while the first attempt still runs waits for it.
+    public CheckOutResponse checkOut(CheckOutRequest request, String idempotencyKey) {
+        return idempotencyStore.execute(
+                authService.getCurrentUserId(),
+                idempotencyKey,
+                request.getCartId(),
+                () -> checkOut(request)
+        );
+    }
+
+    private PlacedOrder createOrder(UUID cartId) {
+        var cart = cartRepository.getCartWithItems(cartId).orElse(null);
         if (cart == null) {
             throw new CartNotFoundException();
         }
@@ -35,28 +94,25 @@ public class CheckOutService {
             throw new CartEmptyException();
         }
 
-        var order = Order.fromCart(cart, authService.getCurrentUser());
+        // Reuses the totals the customer was last shown when the cart and its prices have not changed since.
+        var order = Order.fromCart(cart, cartPricingEngine.price(cart), authService.getCurrentUser());
         orderRepository.save(order);
+        outboxService.publish(OrderEvent.AGGREGATE_TYPE, order.getId(), OrderEventType.ORDER_CREATED.name(), OrderEvent.of(order));
+        return new PlacedOrder(order, cart.getVersion());
+    }
 
-        try {
-            var checkoutSession = paymentGateway.createCheckoutSession(order);
-
-            cartService.clearCart(cart.getId());
-
-            return new CheckOutResponse(order.getId(), checkoutSession.getCheckoutUrl());
-        } catch (PaymentException ex) {
-            orderRepository.delete(order);
-            throw ex;
-        }
+    private static Map<Long, Integer> orderedQuantities(Order order) {
+        return order.getItems().stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), item -> item.getQuantity(), Integer::sum));
     }
 
+    // Only verifies and parses the event on the request thread; PaymentWebhookQueue applies it to the order.
     public void handleWebhookEvent(WebhookRequest request) {
         paymentGateway
                 .parseWebhookRequest(request)
-                .ifPresent( paymentResult -> {
-                    var order = orderRepository.findById(paymentResult.getOrderId()).orElseThrow();
-                    order.setStatus(paymentResult.getPaymentStatus());
-                    orderRepository.save(order);
-                });
+                .ifPresent(paymentWebhookQueue::enqueue);
+    }
+
+    private record PlacedOrder(Order order, Long cartVersion) {
     }
 }
@@ -0,0 +1,131 @@
+package com.alopez.store.payments.services;
+
+import com.alopez.store.payments.config.IdempotencyConfig;
+import com.alopez.store.payments.dtos.CheckOutResponse;
+import com.alopez.store.payments.exceptions.IdempotencyKeyInProgressException;
+import com.alopez.store.payments.exceptions.IdempotencyKeyReusedException;
+import com.alopez.store.payments.exceptions.InvalidIdempotencyKeyException;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/*
+ Checkout responses by user and Idempotency-Key, kept for ttl milliseconds and at most maxEntries of them.
+ The bound is count-based: with more than maxEntries checkouts per ttl the oldest finished keys are dropped
+ before their ttl runs out. Keys whose checkout is still running are never dropped.
+ The first request with a key runs the checkout; duplicates arriving while it runs wait up to waitTimeout
+ for its result instead of running again, and later ones get the stored response. A failed checkout is not
+ stored, so it can be retried with the same key. Keys are held in insertion order, so expired entries are
+ always at the head of the map.
+ */
+@Component
+public class IdempotencyStore {
+    private final IdempotencyConfig config;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyStore(IdempotencyConfig config) {
+        this.config = config;
+    }
+
+    public CheckOutResponse execute(Long userId, String idempotencyKey, UUID cartId, Supplier<CheckOutResponse> checkOut) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > config.getMaxKeyLength()) {
+            throw new InvalidIdempotencyKeyException();
+        }
+
+        var key = userId + ":" + idempotencyKey;
+        Entry entry;
+        var first = false;
+        synchronized (this) {
+            removeExpired();
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(cartId, System.nanoTime());
+                entries.put(key, entry);
+                first = true;
+                removeOverflow();
+            }
+        }
+
+        if (!entry.cartId.equals(cartId)) {
+            throw new IdempotencyKeyReusedException();
+        }
+
+        if (first) {
+            try {
+                entry.response.complete(checkOut.get());
+            } catch (Throwable e) {
+                // Errors too: a future left incomplete would hold the key and stall every duplicate until ttl.
+                synchronized (this) {
+                    entries.remove(key, entry);
+                }
+                entry.response.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return entry.response.get(config.getWaitTimeout(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Duplicates of a failed checkout fail the same way it did.
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void removeExpired() {
+        var now = System.nanoTime();
+        var ttlNanos = config.getTtl() * 1_000_000;
+        var iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (now - entry.createdAt < ttlNanos) {
+                break;
+            }
+            if (entry.response.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void removeOverflow() {
+        var iterator = entries.values().iterator();
+        while (entries.size() > config.getMaxEntries() && iterator.hasNext()) {
+            // Dropping a running checkout's key would let a retry start a second checkout alongside it.
+            if (iterator.next().response.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Entry {
+        private final UUID cartId;
+        private final long createdAt;
+        private final CompletableFuture<CheckOutResponse> response = new CompletableFuture<>();
+
+        private Entry(UUID cartId, long createdAt) {
+            this.cartId = cartId;
+            this.createdAt = createdAt;
+        }
+    }
+}
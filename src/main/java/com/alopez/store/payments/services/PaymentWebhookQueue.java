@@ -0,0 +1,226 @@
+package com.alopez.store.payments.services;
+
+import com.alopez.store.orders.dtos.OrderEvent;
+import com.alopez.store.orders.dtos.OrderEventType;
+import com.alopez.store.orders.entities.PaymentStatus;
+import com.alopez.store.outbox.services.OutboxService;
+import com.alopez.store.payments.config.WebhookQueueConfig;
+import com.alopez.store.payments.dtos.PaymentResult;
+import com.alopez.store.payments.dtos.WebhookQueueStats;
+import com.alopez.store.payments.exceptions.WebhookQueueFullException;
+import com.alopez.store.payments.repositories.PaymentWebhookEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Durable queue between the webhook endpoint and order status changes. A verified event is inserted into
+ payment_webhook_events and acknowledged; worker threads then claim batches and apply them in one transaction
+ with a single UPDATE of orders. Events are sharded over this instance's workers by order id, and a worker
+ skips orders whose older events are still claimed, so within an instance each order's events are applied in
+ arrival order. Shards are not coordinated across instances: two instances' workers can claim events of the
+ same order, and then only the order row lock and the rules below hold. Statuses only move forward (see
+ PaymentStatus.canTransitionTo), so a late or out-of-order event cannot undo a later one, and redelivered
+ events are dropped by the WebhookEventLedger.
+ Once queueDepth reaches maxQueueDepth new events are refused, and the endpoint answers 503 so Stripe retries.
+ */
+@Component
+public class PaymentWebhookQueue {
+    private final PaymentWebhookEventRepository paymentWebhookEventRepository;
+    private final OutboxService outboxService;
+    private final WebhookEventLedger webhookEventLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final WebhookQueueConfig config;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong enqueuedEvents = new AtomicLong();
+    private final AtomicLong rejectedEvents = new AtomicLong();
+    private final AtomicLong duplicateEvents = new AtomicLong();
+    private final AtomicLong staleEvents = new AtomicLong();
+    private final AtomicLong appliedEvents = new AtomicLong();
+    private final AtomicLong unknownOrders = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile long lastBatchDurationMillis;
+
+    private ExecutorService workers;
+
+    public PaymentWebhookQueue(PaymentWebhookEventRepository paymentWebhookEventRepository,
+                               OutboxService outboxService,
+                               WebhookEventLedger webhookEventLedger,
+                               TransactionTemplate transactionTemplate,
+                               WebhookQueueConfig config) {
+        this.paymentWebhookEventRepository = paymentWebhookEventRepository;
+        this.outboxService = outboxService;
+        this.webhookEventLedger = webhookEventLedger;
+        this.transactionTemplate = transactionTemplate;
+        this.config = config;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        workers = Executors.newFixedThreadPool(config.getWorkers());
+        for (var shard = 0; shard < config.getWorkers(); shard++) {
+            var workerShard = shard;
+            workers.submit(() -> work(workerShard));
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    public void enqueue(PaymentResult paymentResult) {
+        var eventId = paymentResult.getEventId();
+        if (eventId != null && webhookEventLedger.isRecent(eventId)) {
+            duplicateEvents.incrementAndGet();
+            return;
+        }
+        if (queueDepth.get() >= config.getMaxQueueDepth()) {
+            rejectedEvents.incrementAndGet();
+            throw new WebhookQueueFullException();
+        }
+
+        if (eventId == null) {
+            paymentWebhookEventRepository.insert(paymentResult);
+        } else {
+            var recorded = transactionTemplate.execute(status -> {
+                if (!webhookEventLedger.record(eventId)) {
+                    return false;
+                }
+                paymentWebhookEventRepository.insert(paymentResult);
+                return true;
+            });
+            webhookEventLedger.remember(eventId);
+            if (!Boolean.TRUE.equals(recorded)) {
+                duplicateEvents.incrementAndGet();
+                return;
+            }
+        }
+        queueDepth.incrementAndGet();
+        enqueuedEvents.incrementAndGet();
+    }
+
+    private void work(int shard) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (processBatch(shard) < config.getBatchSize()) {
+                    Thread.sleep(config.getPollInterval());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // The batch stays claimed and is taken over once its claim times out.
+                failedBatches.incrementAndGet();
+                try {
+                    Thread.sleep(config.getPollInterval());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Other instances share the table, so the locally tracked depth is corrected from it now and then
+    // rather than by every idle poll.
+    @Scheduled(fixedDelayString = "${payments.webhooks.depthResyncInterval:5000}")
+    public void resyncQueueDepth() {
+        queueDepth.set(paymentWebhookEventRepository.count());
+    }
+
+    // Claims and applies one batch of the shard's events, returning how many were applied.
+    public int processBatch(int shard) {
+        var startedAt = System.nanoTime();
+        var claimToken = UUID.randomUUID().toString();
+        var claimed = paymentWebhookEventRepository.claim(
+                claimToken, shard, config.getWorkers(), config.getClaimTimeout(), config.getBatchSize());
+        if (claimed == 0) {
+            return 0;
+        }
+
+        var applied = transactionTemplate.execute(status -> {
+            var events = paymentWebhookEventRepository.findClaimed(claimToken);
+            // The claim can already have timed out and been taken over, and there is nothing left to apply.
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            var statuses = new LinkedHashMap<Long, List<PaymentStatus>>();
+            events.forEach(paymentResult -> statuses
+                    .computeIfAbsent(paymentResult.getOrderId(), orderId -> new ArrayList<>())
+                    .add(paymentResult.getPaymentStatus()));
+
+            var changed = new LinkedHashMap<Long, PaymentStatus>();
+            var orders = paymentWebhookEventRepository.lockOrders(statuses.keySet());
+            for (var order : orders) {
+                var newStatus = order.getStatus();
+                for (var next : statuses.get(order.getOrderId())) {
+                    if (newStatus.canTransitionTo(next)) {
+                        newStatus = next;
+                    } else {
+                        staleEvents.incrementAndGet();
+                    }
+                }
+                if (order.getStatus() != newStatus) {
+                    changed.put(order.getOrderId(), newStatus);
+                    outboxService.publish(
+                            OrderEvent.AGGREGATE_TYPE,
+                            order.getOrderId(),
+                            OrderEventType.ORDER_STATUS_CHANGED.name(),
+                            new OrderEvent(order.getOrderId(), order.getCustomerId(), newStatus, order.getTotalPrice())
+                    );
+                }
+            }
+            if (!changed.isEmpty()) {
+                paymentWebhookEventRepository.updateOrderStatuses(changed);
+            }
+
+            // Events for orders that no longer exist, e.g. deleted after a failed checkout, are dropped.
+            unknownOrders.addAndGet(statuses.size() - orders.size());
+            paymentWebhookEventRepository.deleteClaimed(claimToken);
+            return events.size();
+        });
+        if (applied == null || applied == 0) {
+            return 0;
+        }
+
+        queueDepth.addAndGet(-applied);
+        appliedEvents.addAndGet(applied);
+        batches.incrementAndGet();
+        lastBatchDurationMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        return applied;
+    }
+
+    public WebhookQueueStats getStats() {
+        return new WebhookQueueStats(
+                Math.max(queueDepth.get(), 0),
+                config.getMaxQueueDepth(),
+                config.getWorkers(),
+                enqueuedEvents.get(),
+                rejectedEvents.get(),
+                duplicateEvents.get(),
+                staleEvents.get(),
+                appliedEvents.get(),
+                unknownOrders.get(),
+                batches.get(),
+                failedBatches.get(),
+                lastBatchDurationMillis
+        );
+    }
+}
@@ -0,0 +1,57 @@
+package com.alopez.store.payments.services;
+
+import com.alopez.store.payments.config.WebhookLedgerConfig;
+import com.alopez.store.payments.repositories.PaymentWebhookEventRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ Ids of webhook events already accepted. The processed_webhook_events table is the record; the most recently
+ seen ids are also kept in a bounded LRU map, so a redelivery is usually turned away without a query, and
+ otherwise by an INSERT IGNORE that writes nothing. Ids are kept retentionDays, longer than Stripe retries.
+ */
+@Component
+public class WebhookEventLedger {
+    private final PaymentWebhookEventRepository paymentWebhookEventRepository;
+    private final WebhookLedgerConfig config;
+    private final Map<String, Boolean> recent;
+
+    public WebhookEventLedger(PaymentWebhookEventRepository paymentWebhookEventRepository, WebhookLedgerConfig config) {
+        this.paymentWebhookEventRepository = paymentWebhookEventRepository;
+        this.config = config;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > config.getCacheSize();
+            }
+        };
+    }
+
+    public synchronized boolean isRecent(String eventId) {
+        return recent.get(eventId) != null;
+    }
+
+    // Must run in the transaction that enqueues the event, so an id is only recorded together with its event.
+    public boolean record(String eventId) {
+        return paymentWebhookEventRepository.insertProcessedEvent(eventId) > 0;
+    }
+
+    // Called once the recording transaction has committed.
+    public synchronized void remember(String eventId) {
+        recent.put(eventId, Boolean.TRUE);
+    }
+
+    @Scheduled(
+            initialDelayString = "${payments.webhooks.ledger.pruneInterval:3600000}",
+            fixedDelayString = "${payments.webhooks.ledger.pruneInterval:3600000}"
+    )
+    public void prune() {
+        while (paymentWebhookEventRepository.deleteProcessedEventsOlderThan(
+                config.getRetentionDays(), config.getPruneChunkSize()) >= config.getPruneChunkSize()) {
+            // Each chunk is its own statement, so locks are held only briefly.
+        }
+    }
+}
@@ -61,10 +61,10 @@ public class StripePaymentGateway implements PaymentGateway {
 
             return switch (event.getType()) {
                 case "payment_intent.succeeded" ->
-                        Optional.of(new PaymentResult(extractOrderId(event), PaymentStatus.PAID));
+                        Optional.of(new PaymentResult(extractOrderId(event), PaymentStatus.PAID, event.getId()));
 
                 case "payment_intent.payment_failed" ->
-                        Optional.of(new PaymentResult(extractOrderId(event), PaymentStatus.FAILED));
+                        Optional.of(new PaymentResult(extractOrderId(event), PaymentStatus.FAILED, event.getId()));
 
                 default -> Optional.empty();
             };
@@ -88,24 +88,37 @@ public class StripePaymentGateway implements PaymentGateway {
         return Long.valueOf(orderId);
     }
 
+    // Stripe charges unit amount times quantity. A discounted line whose total does not split into whole cents
+    // per unit is sent as one unit priced at the line total, so the line items always add up to the order total.
     private SessionCreateParams.LineItem createLineItem(OrderItem item) {
+        var quantity = BigDecimal.valueOf(item.getQuantity());
+        var totalCents = lineTotal(item).movePointRight(2);
+        var splits = totalCents.remainder(quantity).signum() == 0;
+
+        var name = splits ? item.getProduct().getName() : item.getProduct().getName() + " x " + item.getQuantity();
         return SessionCreateParams.LineItem.builder()
-                .setQuantity(Long.valueOf(item.getQuantity()))
-                .setPriceData(createPriceData(item))
+                .setQuantity(splits ? quantity.longValue() : 1L)
+                .setPriceData(createPriceData(item, splits ? totalCents.divide(quantity) : totalCents, name))
                 .build();
     }
 
-    private SessionCreateParams.LineItem.PriceData createPriceData(OrderItem item) {
+    private BigDecimal lineTotal(OrderItem item) {
+        return item.getTotalPrice() != null
+                ? item.getTotalPrice()
+                : item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+    }
+
+    private SessionCreateParams.LineItem.PriceData createPriceData(OrderItem item, BigDecimal unitAmountCents, String name) {
         return SessionCreateParams.LineItem.PriceData.builder()
                 .setCurrency("mxn")
-                .setUnitAmountDecimal(item.getUnitPrice().multiply(BigDecimal.valueOf(100)))
-                .setProductData(createProductData(item))
+                .setUnitAmountDecimal(unitAmountCents)
+                .setProductData(createProductData(item, name))
                 .build();
     }
 
-    private SessionCreateParams.LineItem.PriceData.ProductData createProductData(OrderItem item) {
+    private SessionCreateParams.LineItem.PriceData.ProductData createProductData(OrderItem item, String name) {
         return SessionCreateParams.LineItem.PriceData.ProductData.builder()
-                .setName(item.getProduct().getName())
+                .setName(name)
                 .setDescription(item.getProduct().getDescription())
                 .build();
     }
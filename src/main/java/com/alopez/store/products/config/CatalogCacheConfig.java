@@ -0,0 +1,14 @@
+package com.alopez.store.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.catalog-cache")
+@Data
+public class CatalogCacheConfig {
+    private boolean enabled = true;
+    private int maxEntries = 64;
+    private long maxAge = 30000;
+}
@@ -0,0 +1,22 @@
+package com.alopez.store.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.facets")
+@Data
+public class ProductFacetConfig {
+    private List<BigDecimal> priceBuckets = List.of(
+            new BigDecimal("50"),
+            new BigDecimal("100"),
+            new BigDecimal("250"),
+            new BigDecimal("500")
+    );
+    private int defaultLimit = 20;
+    private int maxLimit = 100;
+}
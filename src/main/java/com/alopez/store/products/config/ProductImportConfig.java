@@ -0,0 +1,13 @@
+package com.alopez.store.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.import")
+@Data
+public class ProductImportConfig {
+    private int batchSize = 500;
+    private int maxReportedErrors = 100;
+}
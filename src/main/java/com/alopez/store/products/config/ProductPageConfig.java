@@ -0,0 +1,13 @@
+package com.alopez.store.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.page")
+@Data
+public class ProductPageConfig {
+    private int defaultSize = 20;
+    private int maxSize = 100;
+}
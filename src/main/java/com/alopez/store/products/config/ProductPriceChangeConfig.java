@@ -0,0 +1,12 @@
+package com.alopez.store.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.price-change")
+@Data
+public class ProductPriceChangeConfig {
+    private int idChunkSize = 1000;
+}
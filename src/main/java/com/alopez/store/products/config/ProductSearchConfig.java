@@ -0,0 +1,15 @@
+package com.alopez.store.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.search")
+@Data
+public class ProductSearchConfig {
+    private int defaultLimit = 20;
+    private int maxLimit = 100;
+    private int maxPrefixExpansions = 64;
+    private int nameWeight = 3;
+}
@@ -0,0 +1,15 @@
+package com.alopez.store.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.suggest")
+@Data
+public class ProductSuggestConfig {
+    private int maxResults = 10;
+    private int maxKeyLength = 32;
+    private long popularityRefreshInterval = 600000; // 10m
+    private long rebuildDelay = 1000;
+}
@@ -0,0 +1,63 @@
+package com.alopez.store.products.controllers;
+
+import com.alopez.store.common.dtos.ErrorDto;
+import com.alopez.store.products.dtos.CategoryDto;
+import com.alopez.store.products.dtos.CreateCategoryRequest;
+import com.alopez.store.products.exceptions.CategoryNotFoundException;
+import com.alopez.store.products.services.CategoryRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/categories")
+@Tag(name = "Categories", description = "Operations for product categories")
+public class CategoryController {
+    private final CategoryRegistry categoryRegistry;
+
+    @GetMapping
+    @Operation(summary = "Gets all categories")
+    public ResponseEntity<List<CategoryDto>> getAllCategories(WebRequest request) {
+        var version = categoryRegistry.getVersion();
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
+
+        return ResponseEntity.ok(categoryRegistry.getAll());
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Gets a category by id")
+    public CategoryDto getCategoryById(
+            @Parameter(description = "The id of the category", required = true)
+            @PathVariable Byte id
+    ) {
+        return categoryRegistry.find(id).orElseThrow(CategoryNotFoundException::new);
+    }
+
+    @PostMapping
+    @Operation(summary = "Creates a new category")
+    public ResponseEntity<CategoryDto> createCategory(
+            @Valid @RequestBody CreateCategoryRequest request,
+            UriComponentsBuilder uriBuilder
+    ) {
+        var categoryDto = categoryRegistry.create(request.getName());
+        var uri = uriBuilder.path("/categories/{id}").buildAndExpand(categoryDto.getId()).toUri();
+        return ResponseEntity.created(uri).body(categoryDto);
+    }
+
+    @ExceptionHandler(CategoryNotFoundException.class)
+    public ResponseEntity<ErrorDto> handleCategoryNotFound(Exception e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorDto(e.getMessage()));
+    }
+}
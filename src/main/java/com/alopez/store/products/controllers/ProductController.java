@@ -1,20 +1,41 @@
 package com.alopez.store.products.controllers;
 
 import com.alopez.store.common.dtos.ErrorDto;
+import com.alopez.store.products.dtos.BulkPriceChangeRequest;
+import com.alopez.store.products.dtos.BulkPriceChangeResultDto;
 import com.alopez.store.products.dtos.ProductDto;
+import com.alopez.store.products.dtos.ProductFacetsDto;
+import com.alopez.store.products.dtos.ProductFilter;
+import com.alopez.store.products.dtos.ProductImportFormat;
+import com.alopez.store.products.dtos.ProductImportResultDto;
+import com.alopez.store.products.dtos.ProductPageDto;
+import com.alopez.store.products.dtos.ProductSuggestionDto;
+import com.alopez.store.products.dtos.ProductSummaryDto;
 import com.alopez.store.products.exceptions.CategoryNotFoundException;
+import com.alopez.store.products.exceptions.InvalidImportException;
+import com.alopez.store.products.exceptions.InvalidPageRequestException;
+import com.alopez.store.products.exceptions.InvalidPriceChangeException;
 import com.alopez.store.products.exceptions.ProductNotFoundException;
+import com.alopez.store.products.services.ProductImportService;
+import com.alopez.store.products.services.ProductPriceService;
 import com.alopez.store.products.services.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @AllArgsConstructor
@@ -22,23 +43,97 @@ import java.util.List;
 @Tag(name = "Products", description = "Operations for products")
 public class ProductController {
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductPriceService productPriceService;
 
     @GetMapping
     @Operation(summary = "Gets all products")
-    public List<ProductDto> getAllProducts(
+    public ResponseEntity<List<ProductSummaryDto>> getAllProducts(
             @Parameter(description = "Filter products by category id")
-            @RequestParam(name = "categoryId", required = false) Byte categoryId
+            @RequestParam(name = "categoryId", required = false) Byte categoryId,
+            WebRequest request
     ) {
-        return productService.getAllProducts(categoryId);
+        // Read the version before the data: a concurrent change can then only leave the tag older than the body.
+        var version = productService.getCatalogVersion(categoryId);
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
+
+        return ResponseEntity.ok(productService.getAllProducts(categoryId));
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "Gets a page of products using keyset pagination")
+    public ProductPageDto getProductPage(
+            @Parameter(description = "Filter products by category id")
+            @RequestParam(name = "categoryId", required = false) Byte categoryId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @Parameter(description = "Number of products per page")
+            @RequestParam(name = "size", required = false) Integer size,
+            @Parameter(description = "Sort by id, price or name")
+            @RequestParam(name = "sort", required = false) String sort,
+            @Parameter(description = "Sort direction, asc or desc")
+            @RequestParam(name = "direction", required = false) String direction
+    ) {
+        return productService.getProductPage(categoryId, cursor, size, sort, direction);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Searches products by name and description")
+    public List<ProductDto> searchProducts(
+            @Parameter(description = "Search terms, the last one may be a prefix", required = true)
+            @RequestParam(name = "q") String query,
+            @Parameter(description = "Maximum number of results")
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        return productService.searchProducts(query, limit);
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggests product names for a typed prefix, most popular first")
+    public List<ProductSuggestionDto> suggestProducts(
+            @Parameter(description = "Typed prefix", required = true)
+            @RequestParam(name = "q") String query,
+            @Parameter(description = "Maximum number of suggestions")
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        return productService.suggestProducts(query, limit);
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Filters products and returns category and price bucket counts")
+    public ProductFacetsDto getProductFacets(
+            @Parameter(description = "Only include these category ids")
+            @RequestParam(name = "categoryIds", required = false) Set<Byte> categoryIds,
+            @Parameter(description = "Minimum price, inclusive")
+            @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price, inclusive")
+            @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+            @Parameter(description = "Search terms matched against name and description")
+            @RequestParam(name = "q", required = false) String query,
+            @Parameter(description = "Maximum number of products returned")
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        var filter = new ProductFilter(categoryIds, minPrice, maxPrice, query);
+        return productService.getProductFacets(filter, limit);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Gets a product by id")
     public ResponseEntity<ProductDto> getProductById(
             @Parameter(description = "The id of the product", required = true)
-            @PathVariable Long id
+            @PathVariable Long id,
+            WebRequest request
     ) {
+        // The version is read before the data, and only checked once the product exists, so a missing product
+        // is always a 404 without an ETag rather than a 304 on a shared tag.
+        var version = productService.getProductVersion(id);
         var productDto = productService.getProductById(id);
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
+
         return ResponseEntity.ok(productDto);
     }
 
@@ -53,6 +148,24 @@ public class ProductController {
         return ResponseEntity.created(uri).body(productDto);
     }
 
+    @PostMapping(
+            value = "/import",
+            consumes = {ProductImportFormat.CSV_MEDIA_TYPE, ProductImportFormat.NDJSON_MEDIA_TYPE}
+    )
+    @Operation(summary = "Imports products from a CSV or NDJSON stream")
+    public ProductImportResultDto importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) throws IOException {
+        return productImportService.importProducts(body, ProductImportFormat.fromContentType(contentType));
+    }
+
+    @PostMapping("/prices")
+    @Operation(summary = "Changes the prices of a category or a list of products by a percentage or an amount")
+    public BulkPriceChangeResultDto changePrices(@Valid @RequestBody BulkPriceChangeRequest request) {
+        return productPriceService.changePrices(request);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Updates a product")
     public ResponseEntity<ProductDto> updateProduct(
@@ -84,4 +197,19 @@ public class ProductController {
         return ResponseEntity.badRequest().body(new ErrorDto(e.getMessage()));
     }
 
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ErrorDto> handleInvalidImport(Exception e) {
+        return ResponseEntity.badRequest().body(new ErrorDto(e.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidPriceChangeException.class)
+    public ResponseEntity<ErrorDto> handleInvalidPriceChange(Exception e) {
+        return ResponseEntity.badRequest().body(new ErrorDto(e.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<ErrorDto> handleInvalidPageRequest(Exception e) {
+        return ResponseEntity.badRequest().body(new ErrorDto(e.getMessage()));
+    }
+
 }
@@ -0,0 +1,20 @@
+package com.alopez.store.products.dtos;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class BulkPriceChangeRequest {
+    @NotNull(message = "Mode is required")
+    private PriceChangeMode mode;
+
+    @NotNull(message = "Amount is required")
+    private BigDecimal amount;
+
+    private Byte categoryId;
+
+    private List<Long> productIds;
+}
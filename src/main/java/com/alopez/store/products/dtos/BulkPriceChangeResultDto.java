@@ -0,0 +1,12 @@
+package com.alopez.store.products.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class BulkPriceChangeResultDto {
+    private long updated;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
@@ -0,0 +1,14 @@
+package com.alopez.store.products.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@AllArgsConstructor
+@Getter
+public class PriceBucketDto {
+    private BigDecimal from;
+    private BigDecimal to;
+    private long count;
+}
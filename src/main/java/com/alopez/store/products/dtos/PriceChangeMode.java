@@ -0,0 +1,6 @@
+package com.alopez.store.products.dtos;
+
+public enum PriceChangeMode {
+    PERCENTAGE,
+    ABSOLUTE
+}
@@ -0,0 +1,15 @@
+package com.alopez.store.products.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class ProductFacetsDto {
+    private List<ProductDto> items;
+    private long totalItems;
+    private List<CategoryFacetDto> categories;
+    private List<PriceBucketDto> priceBuckets;
+}
@@ -0,0 +1,23 @@
+package com.alopez.store.products.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+@AllArgsConstructor
+@Getter
+public class ProductFilter {
+    private Set<Byte> categoryIds;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private String text;
+
+    public boolean isEmpty() {
+        return (categoryIds == null || categoryIds.isEmpty())
+                && minPrice == null
+                && maxPrice == null
+                && (text == null || text.isBlank());
+    }
+}
@@ -0,0 +1,23 @@
+package com.alopez.store.products.dtos;
+
+import com.alopez.store.products.exceptions.InvalidImportException;
+import org.springframework.http.MediaType;
+
+public enum ProductImportFormat {
+    CSV,
+    NDJSON;
+
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    public static ProductImportFormat fromContentType(String contentType) {
+        var mediaType = contentType != null ? MediaType.parseMediaType(contentType) : null;
+        if (mediaType != null && mediaType.isCompatibleWith(MediaType.parseMediaType(CSV_MEDIA_TYPE))) {
+            return CSV;
+        }
+        if (mediaType != null && mediaType.isCompatibleWith(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))) {
+            return NDJSON;
+        }
+        throw new InvalidImportException("Content type must be text/csv or application/x-ndjson");
+    }
+}
@@ -0,0 +1,15 @@
+package com.alopez.store.products.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class ProductImportResultDto {
+    private long imported;
+    private long failed;
+    private List<ProductImportErrorDto> errors;
+    private boolean errorsTruncated;
+}
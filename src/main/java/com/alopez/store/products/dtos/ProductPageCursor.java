@@ -0,0 +1,55 @@
+package com.alopez.store.products.dtos;
+
+import com.alopez.store.products.exceptions.InvalidPageRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+ Opaque keyset position: the id of the last row served plus the value of the sort column for that row,
+ encoded as base64url("<id>:<value>").
+ */
+@AllArgsConstructor
+@Getter
+public class ProductPageCursor {
+    private Long id;
+    private String value;
+
+    public static ProductPageCursor after(ProductSummaryDto product, ProductSort sort) {
+        var value = switch (sort) {
+            case ID -> "";
+            case PRICE -> product.getPrice().toPlainString();
+            case NAME -> product.getName();
+        };
+        return new ProductPageCursor(product.getId(), value);
+    }
+
+    public static ProductPageCursor decode(String cursor) {
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separator = decoded.indexOf(':');
+            return new ProductPageCursor(
+                    Long.valueOf(decoded.substring(0, separator)),
+                    decoded.substring(separator + 1)
+            );
+        } catch (RuntimeException e) {
+            throw new InvalidPageRequestException("Invalid cursor");
+        }
+    }
+
+    public BigDecimal getPriceValue() {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidPageRequestException("Cursor does not match the requested sort");
+        }
+    }
+
+    public String encode() {
+        var raw = id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
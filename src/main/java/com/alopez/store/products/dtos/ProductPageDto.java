@@ -0,0 +1,13 @@
+package com.alopez.store.products.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class ProductPageDto {
+    private List<ProductSummaryDto> items;
+    private String nextCursor;
+}
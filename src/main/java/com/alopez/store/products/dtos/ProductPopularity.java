@@ -0,0 +1,7 @@
+package com.alopez.store.products.dtos;
+
+public interface ProductPopularity {
+    Long getProductId();
+
+    Long getOrderCount();
+}
@@ -0,0 +1,20 @@
+package com.alopez.store.products.dtos;
+
+import com.alopez.store.products.exceptions.InvalidPageRequestException;
+
+public enum ProductSort {
+    ID,
+    PRICE,
+    NAME;
+
+    public static ProductSort fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return ID;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException("Sort must be one of: id, price, name");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.alopez.store.products.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class ProductSuggestionDto {
+    private Long id;
+    private String name;
+}
@@ -0,0 +1,18 @@
+package com.alopez.store.products.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/*
+ List view of a product: everything but the description, read straight from a JPQL constructor expression.
+ */
+@AllArgsConstructor
+@Getter
+public class ProductSummaryDto {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private Byte categoryId;
+}
@@ -0,0 +1,12 @@
+package com.alopez.store.products.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class ProductTextDto {
+    private Long id;
+    private String name;
+    private String description;
+}
@@ -0,0 +1,11 @@
+package com.alopez.store.products.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class ResourceVersion {
+    private String etag;
+    private long lastModified;
+}
@@ -0,0 +1,5 @@
+package com.alopez.store.products.exceptions;
+
+public class InvalidImportException extends RuntimeException {
+    public InvalidImportException(String message) { super(message); }
+}
@@ -0,0 +1,5 @@
+package com.alopez.store.products.exceptions;
+
+public class InvalidPageRequestException extends RuntimeException {
+    public InvalidPageRequestException(String message) { super(message); }
+}
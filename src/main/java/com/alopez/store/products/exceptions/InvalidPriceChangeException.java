@@ -0,0 +1,5 @@
+package com.alopez.store.products.exceptions;
+
+public class InvalidPriceChangeException extends RuntimeException {
+    public InvalidPriceChangeException(String message) { super(message); }
+}
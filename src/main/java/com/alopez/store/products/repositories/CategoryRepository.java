@@ -1,7 +1,7 @@
 package com.alopez.store.products.repositories;
 
 import com.alopez.store.products.dtos.Category;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface CategoryRepository extends CrudRepository<Category, Byte> {
+public interface CategoryRepository extends JpaRepository<Category, Byte> {
 }
\ No newline at end of file
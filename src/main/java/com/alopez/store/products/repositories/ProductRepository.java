@@ -1,17 +1,153 @@
 package com.alopez.store.products.repositories;
 
 import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.dtos.ProductDto;
+import com.alopez.store.products.dtos.ProductPopularity;
+import com.alopez.store.products.dtos.ProductSuggestionDto;
+import com.alopez.store.products.dtos.ProductSummaryDto;
+import com.alopez.store.products.dtos.ProductTextDto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    @EntityGraph(attributePaths = {"category"})
-    List<Product> findByCategoryId(Byte categoryId);
-
     @EntityGraph(attributePaths = {"category"})
     @Query("SELECT p FROM Product p")
     List<Product> findAllWithCategory();
-}
\ No newline at end of file
+
+    @Query("""
+            SELECT new com.alopez.store.products.dtos.ProductSummaryDto(p.id, p.name, p.price, p.category.id)
+            FROM Product p
+            WHERE (:categoryId IS NULL OR p.category.id = :categoryId)
+            ORDER BY p.id""")
+    List<ProductSummaryDto> findSummaries(@Param("categoryId") Byte categoryId);
+
+    @Query("""
+            SELECT new com.alopez.store.products.dtos.ProductDto(p.id, p.name, p.description, p.price, p.category.id)
+            FROM Product p
+            WHERE p.id = :id""")
+    Optional<ProductDto> findDtoById(@Param("id") Long id);
+
+    @Query("""
+            SELECT new com.alopez.store.products.dtos.ProductDto(p.id, p.name, p.description, p.price, p.category.id)
+            FROM Product p
+            WHERE p.id IN :ids""")
+    List<ProductDto> findDtosByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new com.alopez.store.products.dtos.ProductSummaryDto(p.id, p.name, p.price, p.category.id)
+            FROM Product p
+            WHERE (:categoryId IS NULL OR p.category.id = :categoryId)
+              AND (:afterId IS NULL OR p.id > :afterId)
+            ORDER BY p.id ASC""")
+    List<ProductSummaryDto> findPageOrderByIdAsc(@Param("categoryId") Byte categoryId,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable limit);
+
+    @Query("""
+            SELECT new com.alopez.store.products.dtos.ProductSummaryDto(p.id, p.name, p.price, p.category.id)
+            FROM Product p
+            WHERE (:categoryId IS NULL OR p.category.id = :categoryId)
+              AND (:afterId IS NULL OR p.id < :afterId)
+            ORDER BY p.id DESC""")
+    List<ProductSummaryDto> findPageOrderByIdDesc(@Param("categoryId") Byte categoryId,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable limit);
+
+    @Query("""
+            SELECT new com.alopez.store.products.dtos.ProductSummaryDto(p.id, p.name, p.price, p.category.id)
+            FROM Product p
+            WHERE (:categoryId IS NULL OR p.category.id = :categoryId)
+              AND (:afterId IS NULL OR p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId))
+            ORDER BY p.price ASC, p.id ASC""")
+    List<ProductSummaryDto> findPageOrderByPriceAsc(@Param("categoryId") Byte categoryId,
+                                                    @Param("afterPrice") BigDecimal afterPrice,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable limit);
+
+    @Query("""
+            SELECT new com.alopez.store.products.dtos.ProductSummaryDto(p.id, p.name, p.price, p.category.id)
+            FROM Product p
+            WHERE (:categoryId IS NULL OR p.category.id = :categoryId)
+              AND (:afterId IS NULL OR p.price < :afterPrice OR (p.price = :afterPrice AND p.id < :afterId))
+            ORDER BY p.price DESC, p.id DESC""")
+    List<ProductSummaryDto> findPageOrderByPriceDesc(@Param("categoryId") Byte categoryId,
+                                                     @Param("afterPrice") BigDecimal afterPrice,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable limit);
+
+    @Query("""
+            SELECT new com.alopez.store.products.dtos.ProductSummaryDto(p.id, p.name, p.price, p.category.id)
+            FROM Product p
+            WHERE (:categoryId IS NULL OR p.category.id = :categoryId)
+              AND (:afterId IS NULL OR p.name > :afterName OR (p.name = :afterName AND p.id > :afterId))
+            ORDER BY p.name ASC, p.id ASC""")
+    List<ProductSummaryDto> findPageOrderByNameAsc(@Param("categoryId") Byte categoryId,
+                                                   @Param("afterName") String afterName,
+                                                   @Param("afterId") Long afterId,
+                                                   Pageable limit);
+
+    @Query("""
+            SELECT new com.alopez.store.products.dtos.ProductSummaryDto(p.id, p.name, p.price, p.category.id)
+            FROM Product p
+            WHERE (:categoryId IS NULL OR p.category.id = :categoryId)
+              AND (:afterId IS NULL OR p.name < :afterName OR (p.name = :afterName AND p.id < :afterId))
+            ORDER BY p.name DESC, p.id DESC""")
+    List<ProductSummaryDto> findPageOrderByNameDesc(@Param("categoryId") Byte categoryId,
+                                                    @Param("afterName") String afterName,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable limit);
+
+    @Query("SELECT new com.alopez.store.products.dtos.ProductSuggestionDto(p.id, p.name) FROM Product p")
+    List<ProductSuggestionDto> findSuggestions();
+
+    @Query("SELECT new com.alopez.store.products.dtos.ProductTextDto(p.id, p.name, p.description) FROM Product p")
+    List<ProductTextDto> findTexts();
+
+    @Query("SELECT oi.product.id AS productId, COUNT(oi) AS orderCount FROM OrderItem oi GROUP BY oi.product.id")
+    List<ProductPopularity> countOrderItemsByProduct();
+
+    @Modifying
+    @Query("""
+            UPDATE Product p SET p.price = ROUND(p.price * :factor, 2)
+            WHERE p.category.id = :categoryId
+              AND ROUND(p.price * :factor, 2) BETWEEN 0 AND :maxPrice""")
+    int multiplyPricesByCategory(@Param("categoryId") Byte categoryId,
+                                 @Param("factor") BigDecimal factor,
+                                 @Param("maxPrice") BigDecimal maxPrice);
+
+    @Modifying
+    @Query("""
+            UPDATE Product p SET p.price = ROUND(p.price * :factor, 2)
+            WHERE p.id IN :ids
+              AND ROUND(p.price * :factor, 2) BETWEEN 0 AND :maxPrice""")
+    int multiplyPricesByIds(@Param("ids") Collection<Long> ids,
+                            @Param("factor") BigDecimal factor,
+                            @Param("maxPrice") BigDecimal maxPrice);
+
+    @Modifying
+    @Query("""
+            UPDATE Product p SET p.price = p.price + :delta
+            WHERE p.category.id = :categoryId
+              AND p.price + :delta BETWEEN 0 AND :maxPrice""")
+    int addToPricesByCategory(@Param("categoryId") Byte categoryId,
+                              @Param("delta") BigDecimal delta,
+                              @Param("maxPrice") BigDecimal maxPrice);
+
+    @Modifying
+    @Query("""
+            UPDATE Product p SET p.price = p.price + :delta
+            WHERE p.id IN :ids
+              AND p.price + :delta BETWEEN 0 AND :maxPrice""")
+    int addToPricesByIds(@Param("ids") Collection<Long> ids,
+                         @Param("delta") BigDecimal delta,
+                         @Param("maxPrice") BigDecimal maxPrice);
+}
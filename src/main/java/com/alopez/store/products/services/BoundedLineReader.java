@@ -0,0 +1,45 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.exceptions.InvalidImportException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/*
+ Line reader that never buffers more than MAX_LINE_LENGTH characters of one line. A longer line is read
+ to its end and then reported, so the caller can skip it and one oversized line cannot exhaust the heap.
+ */
+final class BoundedLineReader {
+    static final int MAX_LINE_LENGTH = 1_000_000;
+
+    private final BufferedReader reader;
+    private final StringBuilder line = new StringBuilder();
+
+    BoundedLineReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    String next() throws IOException {
+        line.setLength(0);
+        var tooLong = false;
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (line.length() < MAX_LINE_LENGTH) {
+                line.append((char) c);
+            } else {
+                tooLong = true;
+            }
+        }
+
+        if (c == -1 && line.isEmpty()) {
+            return null;
+        }
+        if (tooLong) {
+            throw new InvalidImportException("Line is longer than " + MAX_LINE_LENGTH + " characters");
+        }
+        if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.dtos.Category;
+import com.alopez.store.products.dtos.CategoryDto;
+import com.alopez.store.products.dtos.ResourceVersion;
+import com.alopez.store.products.repositories.CategoryRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/*
+ All categories, loaded once at startup and replaced on every write made through this registry.
+ Reads go to an immutable snapshot held in a volatile field, so they never touch the database or take a lock.
+ */
+@Component
+public class CategoryRegistry {
+    private final CategoryRepository categoryRepository;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), List.of(), 0, System.currentTimeMillis());
+
+    public CategoryRegistry(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        var categories = new ArrayList<CategoryDto>();
+        categoryRepository.findAll().forEach(category -> categories.add(toDto(category)));
+        publish(categories);
+    }
+
+    public boolean exists(Byte id) {
+        return id != null && snapshot.byId().containsKey(id);
+    }
+
+    public Optional<CategoryDto> find(Byte id) {
+        return id != null ? Optional.ofNullable(snapshot.byId().get(id)) : Optional.empty();
+    }
+
+    public List<CategoryDto> getAll() {
+        return snapshot.all();
+    }
+
+    public Set<Byte> getIds() {
+        return snapshot.byId().keySet();
+    }
+
+    public ResourceVersion getVersion() {
+        var current = snapshot;
+        return new ResourceVersion("\"cat-" + epoch + "-" + current.version() + "\"", current.modifiedAt());
+    }
+
+    public synchronized CategoryDto create(String name) {
+        var category = new Category();
+        category.setName(name.trim());
+        categoryRepository.save(category);
+
+        var categoryDto = toDto(category);
+        var categories = new ArrayList<>(snapshot.all());
+        categories.add(categoryDto);
+        publish(categories);
+        return categoryDto;
+    }
+
+    private void publish(List<CategoryDto> categories) {
+        categories.sort(Comparator.comparing(CategoryDto::getId));
+        var byId = new HashMap<Byte, CategoryDto>();
+        categories.forEach(category -> byId.put(category.getId(), category));
+        snapshot = new Snapshot(Map.copyOf(byId), List.copyOf(categories), snapshot.version() + 1, System.currentTimeMillis());
+    }
+
+    private static CategoryDto toDto(Category category) {
+        return new CategoryDto(category.getId(), category.getName());
+    }
+
+    private record Snapshot(Map<Byte, CategoryDto> byId, List<CategoryDto> all, long version, long modifiedAt) {
+    }
+}
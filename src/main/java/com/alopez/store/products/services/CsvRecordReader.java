@@ -0,0 +1,111 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.exceptions.InvalidImportException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ Minimal RFC 4180 reader: quoted fields may contain commas, doubled quotes and line breaks.
+ Records are read one at a time so the input never has to fit in memory. A record longer than
+ MAX_RECORD_LENGTH is still read to its end, without being kept, before it is reported, so the
+ caller can skip it and carry on with the next record.
+ */
+final class CsvRecordReader {
+    static final int MAX_RECORD_LENGTH = 1_000_000;
+
+    private final BufferedReader reader;
+    private long lineNumber;
+    private long recordLine;
+
+    CsvRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    List<String> next() throws IOException {
+        var c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = ++lineNumber;
+
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var recordLength = 0;
+        var tooLong = false;
+        var quoted = false;
+
+        while (c != -1 && (quoted || c != '\n')) {
+            if (c == '\n') {
+                lineNumber++;
+            }
+            if (++recordLength > MAX_RECORD_LENGTH) {
+                tooLong = true;
+                fields.clear();
+                field.setLength(0);
+            }
+
+            if (quoted && c == '"') {
+                if (peek() == '"') {
+                    read();
+                    append(field, '"', tooLong);
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',' && !quoted) {
+                if (!tooLong) {
+                    fields.add(field.toString());
+                }
+                field.setLength(0);
+            } else {
+                append(field, (char) c, tooLong);
+            }
+            c = read();
+        }
+
+        if (quoted) {
+            throw new InvalidImportException("Unterminated quoted field, it runs from this line to the end of the input");
+        }
+        if (tooLong) {
+            throw new InvalidImportException("Record is longer than " + MAX_RECORD_LENGTH + " characters");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    long getRecordLine() {
+        return recordLine;
+    }
+
+    private static void append(StringBuilder field, char c, boolean tooLong) {
+        if (!tooLong) {
+            field.append(c);
+        }
+    }
+
+    // Reads one character, turning a \r\n line break into \n and dropping a \r that ends the input.
+    private int read() throws IOException {
+        var c = reader.read();
+        if (c != '\r') {
+            return c;
+        }
+        reader.mark(1);
+        var next = reader.read();
+        if (next == '\n' || next == -1) {
+            return next;
+        }
+        reader.reset();
+        return c;
+    }
+
+    private int peek() throws IOException {
+        reader.mark(1);
+        var next = reader.read();
+        reader.reset();
+        return next;
+    }
+}
@@ -0,0 +1,49 @@
+package com.alopez.store.products.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/*
+ Single-product changes that arrive while an index reloads the catalog. The reload's read may or may not have
+ seen them, so the index re-applies them to the freshly loaded state before swapping it in. Only the latest
+ change per product is kept; a null value marks a deletion. Not thread-safe: the owning index guards every call
+ with its own lock and runs one reload at a time.
+ */
+final class PendingProductChanges<T> {
+    private Map<Long, T> changes;
+
+    void start() {
+        changes = new LinkedHashMap<>();
+    }
+
+    void saved(Long productId, T value) {
+        if (changes != null) {
+            changes.put(productId, value);
+        }
+    }
+
+    void deleted(Long productId) {
+        if (changes != null) {
+            changes.put(productId, null);
+        }
+    }
+
+    void finish(BiConsumer<Long, T> onSaved, Consumer<Long> onDeleted) {
+        var finished = changes;
+        changes = null;
+        finished.forEach((productId, value) -> {
+            if (value != null) {
+                onSaved.accept(productId, value);
+            } else {
+                onDeleted.accept(productId);
+            }
+        });
+    }
+
+    // The reload failed and its state is dropped; changes were already applied to the current state.
+    void cancel() {
+        changes = null;
+    }
+}
@@ -0,0 +1,126 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.CatalogCacheConfig;
+import com.alopez.store.products.dtos.CatalogCacheStats;
+import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.dtos.ProductSummaryDto;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ Bounded LRU cache of mapped product listings, keyed by category id (null key = whole catalog).
+ Loads run outside the lock; a load that raced with an invalidation is returned but not stored.
+ Invalidations only come from changes made on this instance, so an entry is also dropped once it is
+ maxAge old; a change made through another instance is then picked up within maxAge.
+ */
+@Component
+public class ProductCatalogCache implements ProductChangeListener {
+    private final CatalogCacheConfig config;
+    private final Map<Byte, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private long generation;
+
+    public ProductCatalogCache(CatalogCacheConfig config) {
+        this.config = config;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Byte, Entry> eldest) {
+                if (size() > config.getMaxEntries()) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public List<ProductSummaryDto> get(Byte categoryId, Supplier<List<ProductSummaryDto>> loader) {
+        if (!config.isEnabled()) {
+            return loader.get();
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            var cached = entries.get(categoryId);
+            if (cached != null) {
+                if (System.currentTimeMillis() - cached.loadedAt() < config.getMaxAge()) {
+                    hits.incrementAndGet();
+                    return cached.products();
+                }
+                entries.remove(categoryId);
+            }
+            loadGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        var loadedAt = System.currentTimeMillis();
+        var products = List.copyOf(loader.get());
+
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.put(categoryId, new Entry(products, loadedAt));
+            }
+        }
+        return products;
+    }
+
+    public synchronized void invalidate(Byte... categoryIds) {
+        generation++;
+        invalidations.incrementAndGet();
+        entries.remove(null);
+        for (var categoryId : categoryIds) {
+            if (categoryId != null) {
+                entries.remove(categoryId);
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    @Override
+    public void onProductSaved(Product product, Byte previousCategoryId) {
+        invalidate(previousCategoryId, categoryIdOf(product));
+    }
+
+    @Override
+    public void onProductDeleted(Product product) {
+        invalidate(categoryIdOf(product));
+    }
+
+    @Override
+    public void onCatalogChanged() {
+        invalidateAll();
+    }
+
+    private Byte categoryIdOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+
+    public synchronized CatalogCacheStats getStats() {
+        return new CatalogCacheStats(
+                hits.get(),
+                misses.get(),
+                evictions.get(),
+                invalidations.get(),
+                entries.size(),
+                config.getMaxEntries()
+        );
+    }
+
+    private record Entry(List<ProductSummaryDto> products, long loadedAt) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.dtos.Product;
+
+public interface ProductChangeListener {
+    void onProductSaved(Product product, Byte previousCategoryId);
+
+    void onProductDeleted(Product product);
+
+    void onCatalogChanged();
+}
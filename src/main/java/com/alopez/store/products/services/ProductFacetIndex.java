@@ -0,0 +1,271 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.ProductFacetConfig;
+import com.alopez.store.products.dtos.*;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ Columnar snapshot of the catalog (id, category, price in cents) kept sorted by id.
+ Unfiltered facet counts are maintained incrementally; filtered ones are computed in a single scan
+ where each facet ignores its own filter, so clients can see how many items every option would add.
+ Matching ids are resolved to rows through ProductLookup once the scan is done.
+ A reload reads the catalog without holding the lock; saves and deletes arriving meanwhile are buffered
+ and re-applied to the new columns before they are swapped in.
+ */
+@Component
+public class ProductFacetIndex implements ProductChangeListener {
+    private static final int NO_CATEGORY = 256;
+
+    private final ProductRepository productRepository;
+    private final ProductLookup productLookup;
+    private final ProductSearchIndex productSearchIndex;
+    private final long[] bucketBounds;
+    private final List<BigDecimal> bucketBoundaries;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object reloadLock = new Object();
+    private final PendingProductChanges<PendingRow> pending = new PendingProductChanges<>();
+    private long[] ids = new long[0];
+    private int[] categories = new int[0];
+    private long[] priceCents = new long[0];
+    private int size;
+
+    private final long[] categoryTotals = new long[NO_CATEGORY + 1];
+    private final long[] bucketTotals;
+
+    public ProductFacetIndex(ProductRepository productRepository,
+                             ProductLookup productLookup,
+                             ProductSearchIndex productSearchIndex,
+                             ProductFacetConfig config) {
+        this.productRepository = productRepository;
+        this.productLookup = productLookup;
+        this.productSearchIndex = productSearchIndex;
+        this.bucketBoundaries = config.getPriceBuckets().stream().sorted().toList();
+        this.bucketBounds = bucketBoundaries.stream().mapToLong(ProductFacetIndex::toCents).toArray();
+        this.bucketTotals = new long[bucketBounds.length + 1];
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        synchronized (reloadLock) {
+            lock.writeLock().lock();
+            try {
+                pending.start();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<ProductSummaryDto> snapshot;
+            try {
+                snapshot = productRepository.findSummaries(null).stream()
+                        .sorted(Comparator.comparing(ProductSummaryDto::getId))
+                        .toList();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pending.cancel();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                size = 0;
+                ids = new long[snapshot.size()];
+                categories = new int[snapshot.size()];
+                priceCents = new long[snapshot.size()];
+                Arrays.fill(categoryTotals, 0);
+                Arrays.fill(bucketTotals, 0);
+                snapshot.forEach(product -> insertRow(size, product.getId(), product.getCategoryId(), product.getPrice()));
+                // Saves and deletes that ran during the read are applied again, so none is lost.
+                pending.finish((productId, row) -> upsertRow(productId, row.categoryId(), row.price()), this::deleteRow);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public ProductFacetsDto query(ProductFilter filter, int limit) {
+        var textMatches = filter.getText() != null && !filter.getText().isBlank()
+                ? productSearchIndex.matchingIds(filter.getText())
+                : null;
+        var wantedCategories = filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()
+                ? filter.getCategoryIds()
+                : null;
+        var minCents = filter.getMinPrice() != null ? toCents(filter.getMinPrice()) : Long.MIN_VALUE;
+        var maxCents = filter.getMaxPrice() != null ? toCents(filter.getMaxPrice()) : Long.MAX_VALUE;
+
+        var items = new ArrayList<Long>();
+        long total;
+        long[] categoryCounts;
+        long[] bucketCounts;
+
+        lock.readLock().lock();
+        try {
+            if (filter.isEmpty()) {
+                for (var row = 0; row < size && items.size() < limit; row++) {
+                    items.add(ids[row]);
+                }
+                total = size;
+                categoryCounts = categoryTotals.clone();
+                bucketCounts = bucketTotals.clone();
+            } else {
+                categoryCounts = new long[NO_CATEGORY + 1];
+                bucketCounts = new long[bucketTotals.length];
+                total = scan(textMatches, wantedCategories, minCents, maxCents, limit, items, categoryCounts, bucketCounts);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return toFacets(productLookup.findAllInOrder(items), total, categoryCounts, bucketCounts);
+    }
+
+    // Runs under the read lock; fills the counts and the first limit matching ids, returning the match count.
+    private long scan(Set<Long> textMatches, Set<Byte> wantedCategories, long minCents, long maxCents, int limit,
+                      List<Long> items, long[] categoryCounts, long[] bucketCounts) {
+        long total = 0;
+        for (var row = 0; row < size; row++) {
+            if (textMatches != null && !textMatches.contains(ids[row])) {
+                continue;
+            }
+
+            var matchesCategory = wantedCategories == null
+                    || (categories[row] != NO_CATEGORY && wantedCategories.contains((byte) (categories[row] - 128)));
+            var matchesPrice = priceCents[row] >= minCents && priceCents[row] <= maxCents;
+
+            if (matchesPrice) {
+                categoryCounts[categories[row]]++;
+            }
+            if (matchesCategory) {
+                bucketCounts[bucketOf(priceCents[row])]++;
+            }
+            if (matchesCategory && matchesPrice) {
+                total++;
+                if (items.size() < limit) {
+                    items.add(ids[row]);
+                }
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void onProductSaved(Product product, Byte previousCategoryId) {
+        var row = new PendingRow(product.getCategory() != null ? product.getCategory().getId() : null, product.getPrice());
+
+        lock.writeLock().lock();
+        try {
+            upsertRow(product.getId(), row.categoryId(), row.price());
+            pending.saved(product.getId(), row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product product) {
+        lock.writeLock().lock();
+        try {
+            deleteRow(product.getId());
+            pending.deleted(product.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogChanged() {
+        reload();
+    }
+
+    private void upsertRow(Long id, Byte categoryId, BigDecimal price) {
+        var row = Arrays.binarySearch(ids, 0, size, id);
+        if (row >= 0) {
+            removeRow(row);
+            insertRow(row, id, categoryId, price);
+        } else {
+            insertRow(-row - 1, id, categoryId, price);
+        }
+    }
+
+    private void deleteRow(Long id) {
+        var row = Arrays.binarySearch(ids, 0, size, id);
+        if (row >= 0) {
+            removeRow(row);
+        }
+    }
+
+    private void insertRow(int row, Long id, Byte categoryId, BigDecimal price) {
+        if (size == ids.length) {
+            var capacity = Math.max(16, size * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+        }
+
+        var tail = size - row;
+        System.arraycopy(ids, row, ids, row + 1, tail);
+        System.arraycopy(categories, row, categories, row + 1, tail);
+        System.arraycopy(priceCents, row, priceCents, row + 1, tail);
+
+        ids[row] = id;
+        categories[row] = categoryId != null ? categoryId + 128 : NO_CATEGORY;
+        priceCents[row] = toCents(price);
+        size++;
+
+        categoryTotals[categories[row]]++;
+        bucketTotals[bucketOf(priceCents[row])]++;
+    }
+
+    private void removeRow(int row) {
+        categoryTotals[categories[row]]--;
+        bucketTotals[bucketOf(priceCents[row])]--;
+
+        var tail = size - row - 1;
+        System.arraycopy(ids, row + 1, ids, row, tail);
+        System.arraycopy(categories, row + 1, categories, row, tail);
+        System.arraycopy(priceCents, row + 1, priceCents, row, tail);
+        size--;
+    }
+
+    private int bucketOf(long cents) {
+        var bucket = Arrays.binarySearch(bucketBounds, cents);
+        return bucket >= 0 ? bucket + 1 : -bucket - 1;
+    }
+
+    private ProductFacetsDto toFacets(List<ProductDto> items, long total, long[] categoryCounts, long[] bucketCounts) {
+        var categoryFacets = new ArrayList<CategoryFacetDto>();
+        for (var slot = 0; slot < NO_CATEGORY; slot++) {
+            if (categoryCounts[slot] > 0) {
+                categoryFacets.add(new CategoryFacetDto((byte) (slot - 128), categoryCounts[slot]));
+            }
+        }
+
+        var priceBuckets = new ArrayList<PriceBucketDto>(bucketCounts.length);
+        for (var bucket = 0; bucket < bucketCounts.length; bucket++) {
+            var from = bucket == 0 ? BigDecimal.ZERO : bucketBoundaries.get(bucket - 1);
+            var to = bucket < bucketBoundaries.size() ? bucketBoundaries.get(bucket) : null;
+            priceBuckets.add(new PriceBucketDto(from, to, bucketCounts[bucket]));
+        }
+
+        return new ProductFacetsDto(List.copyOf(items), total, categoryFacets, priceBuckets);
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).longValue();
+    }
+
+    private record PendingRow(Byte categoryId, BigDecimal price) {
+    }
+}
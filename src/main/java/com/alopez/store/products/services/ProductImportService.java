@@ -0,0 +1,252 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.ProductImportConfig;
+import com.alopez.store.products.dtos.ProductDto;
+import com.alopez.store.products.dtos.ProductImportErrorDto;
+import com.alopez.store.products.dtos.ProductImportFormat;
+import com.alopez.store.products.dtos.ProductImportResultDto;
+import com.alopez.store.products.exceptions.InvalidImportException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/*
+ Bulk import that streams the request body row by row. Valid rows are inserted in JDBC batches, each one
+ in its own transaction, so memory stays bounded by the batch size and the number of reported errors.
+ A batch the database rejects is retried row by row, so every failing row is reported with its own line.
+ */
+@AllArgsConstructor
+@Service
+public class ProductImportService {
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (name, price, description, category_id) VALUES (?, ?, ?, ?)";
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_PRICE_INTEGER_DIGITS = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryRegistry categoryRegistry;
+    private final ObjectMapper objectMapper;
+    private final ProductImportConfig productImportConfig;
+    private final List<ProductChangeListener> productChangeListeners;
+
+    public ProductImportResultDto importProducts(InputStream input, ProductImportFormat format) throws IOException {
+        var run = new ImportRun(categoryRegistry.getIds());
+
+        try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (format == ProductImportFormat.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+            run.flush();
+        } finally {
+            if (run.imported > 0) {
+                productChangeListeners.forEach(ProductChangeListener::onCatalogChanged);
+            }
+        }
+
+        return new ProductImportResultDto(run.imported, run.failed, run.errors, run.errorsTruncated);
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        var records = new CsvRecordReader(reader);
+        var header = records.next();
+        if (header == null) {
+            return;
+        }
+
+        var columns = header.stream().map(column -> column.trim().toLowerCase(Locale.ROOT)).toList();
+        var nameColumn = requireColumn(columns, "name");
+        var priceColumn = requireColumn(columns, "price");
+        var categoryColumn = requireColumn(columns, "categoryid");
+        var descriptionColumn = columns.indexOf("description");
+
+        while (true) {
+            List<String> fields;
+            try {
+                fields = records.next();
+            } catch (InvalidImportException e) {
+                // The reader has consumed the whole bad record, so reading resumes at the next one.
+                run.reject(records.getRecordLine(), e.getMessage());
+                continue;
+            }
+            if (fields == null) {
+                return;
+            }
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+
+            var line = records.getRecordLine();
+            if (fields.size() != columns.size()) {
+                run.reject(line, "Expected " + columns.size() + " columns but found " + fields.size());
+                continue;
+            }
+
+            var product = new ProductDto();
+            product.setName(fields.get(nameColumn));
+            product.setDescription(descriptionColumn >= 0 ? fields.get(descriptionColumn) : null);
+            try {
+                product.setPrice(new BigDecimal(fields.get(priceColumn).trim()));
+            } catch (NumberFormatException e) {
+                run.reject(line, "Price is not a number");
+                continue;
+            }
+            try {
+                product.setCategoryId(Byte.valueOf(fields.get(categoryColumn).trim()));
+            } catch (NumberFormatException e) {
+                run.reject(line, "Category id is not a number");
+                continue;
+            }
+
+            run.add(line, product);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        var productReader = objectMapper.readerFor(ProductDto.class);
+        var lines = new BoundedLineReader(reader);
+        long line = 0;
+        while (true) {
+            line++;
+            String json;
+            try {
+                json = lines.next();
+            } catch (InvalidImportException e) {
+                run.reject(line, e.getMessage());
+                continue;
+            }
+            if (json == null) {
+                return;
+            }
+            if (json.isBlank()) {
+                continue;
+            }
+
+            try {
+                run.add(line, productReader.readValue(json));
+            } catch (JsonProcessingException e) {
+                run.reject(line, "Invalid JSON");
+            }
+        }
+    }
+
+    private static int requireColumn(List<String> columns, String column) {
+        var index = columns.indexOf(column);
+        if (index < 0) {
+            throw new InvalidImportException("CSV header must contain name, price and categoryId columns");
+        }
+        return index;
+    }
+
+    private final class ImportRun {
+        private final Set<Byte> categoryIds;
+        private final List<Object[]> batch = new ArrayList<>();
+        private final List<Long> batchLines = new ArrayList<>();
+        private final List<ProductImportErrorDto> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+        private boolean errorsTruncated;
+
+        private ImportRun(Set<Byte> categoryIds) {
+            this.categoryIds = categoryIds;
+        }
+
+        private void add(long line, ProductDto product) {
+            var error = validate(product);
+            if (error != null) {
+                reject(line, error);
+                return;
+            }
+
+            batchLines.add(line);
+            batch.add(new Object[]{
+                    product.getName().trim(),
+                    product.getPrice(),
+                    product.getDescription() != null ? product.getDescription() : "",
+                    product.getCategoryId()
+            });
+            if (batch.size() >= productImportConfig.getBatchSize()) {
+                flush();
+            }
+        }
+
+        private String validate(ProductDto product) {
+            if (product.getName() == null || product.getName().isBlank()) {
+                return "Name is required";
+            }
+            if (product.getName().trim().length() > MAX_NAME_LENGTH) {
+                return "Name must be at most " + MAX_NAME_LENGTH + " characters";
+            }
+            if (product.getPrice() == null) {
+                return "Price is required";
+            }
+            if (product.getPrice().signum() < 0) {
+                return "Price must not be negative";
+            }
+            if (product.getPrice().scale() > 2
+                    || product.getPrice().precision() - product.getPrice().scale() > MAX_PRICE_INTEGER_DIGITS) {
+                return "Price must have at most " + MAX_PRICE_INTEGER_DIGITS + " integer digits and 2 decimals";
+            }
+            if (product.getCategoryId() == null) {
+                return "Category id is required";
+            }
+            if (!categoryIds.contains(product.getCategoryId())) {
+                return "Category not found!";
+            }
+            return null;
+        }
+
+        private void reject(long line, String error) {
+            failed++;
+            if (errors.size() < productImportConfig.getMaxReportedErrors()) {
+                errors.add(new ProductImportErrorDto(line, error));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_PRODUCT, batch));
+                imported += batch.size();
+            } catch (DataAccessException e) {
+                insertOneByOne();
+            }
+            batch.clear();
+            batchLines.clear();
+        }
+
+        private void insertOneByOne() {
+            for (var i = 0; i < batch.size(); i++) {
+                var row = batch.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_PRODUCT, row));
+                    imported++;
+                } catch (DataAccessException e) {
+                    reject(batchLines.get(i), "Could not insert the row");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.dtos.ProductDto;
+import com.alopez.store.products.repositories.ProductRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+ Turns the ids an in-memory index returns into ProductDto rows with one query, in the order they were given.
+ The indexes only keep what they rank or filter on, so descriptions are never held in memory per index.
+ */
+@AllArgsConstructor
+@Component
+public class ProductLookup {
+    private final ProductRepository productRepository;
+
+    public List<ProductDto> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        var byId = productRepository.findDtosByIds(ids).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        // A product deleted after the index answered is simply left out.
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.ProductPriceChangeConfig;
+import com.alopez.store.products.dtos.BulkPriceChangeRequest;
+import com.alopez.store.products.dtos.BulkPriceChangeResultDto;
+import com.alopez.store.products.dtos.PriceChangeMode;
+import com.alopez.store.products.exceptions.InvalidPriceChangeException;
+import com.alopez.store.products.repositories.ProductRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/*
+ Set-based price changes: one UPDATE per category, or per chunk of ids, all in one transaction.
+ Rows whose new price would be negative or overflow DECIMAL(10, 2) are left untouched.
+ Listeners are notified once, after the commit.
+ */
+@AllArgsConstructor
+@Service
+public class ProductPriceService {
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductPriceChangeConfig productPriceChangeConfig;
+    private final List<ProductChangeListener> productChangeListeners;
+
+    public BulkPriceChangeResultDto changePrices(BulkPriceChangeRequest request) {
+        var byCategory = request.getCategoryId() != null;
+        var byIds = request.getProductIds() != null && !request.getProductIds().isEmpty();
+        if (byCategory == byIds) {
+            throw new InvalidPriceChangeException("Either categoryId or productIds must be given");
+        }
+
+        var percentage = request.getMode() == PriceChangeMode.PERCENTAGE;
+        if (percentage && request.getAmount().compareTo(HUNDRED.negate()) < 0) {
+            throw new InvalidPriceChangeException("Percentage must not be lower than -100");
+        }
+        var factor = BigDecimal.ONE.add(request.getAmount().movePointLeft(2));
+        var delta = request.getAmount();
+
+        var startedAt = System.nanoTime();
+        var updated = transactionTemplate.execute(status -> {
+            if (byCategory) {
+                return percentage
+                        ? productRepository.multiplyPricesByCategory(request.getCategoryId(), factor, MAX_PRICE)
+                        : productRepository.addToPricesByCategory(request.getCategoryId(), delta, MAX_PRICE);
+            }
+
+            var ids = request.getProductIds().stream().distinct().toList();
+            var chunkSize = productPriceChangeConfig.getIdChunkSize();
+            var total = 0;
+            for (var from = 0; from < ids.size(); from += chunkSize) {
+                var chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                total += percentage
+                        ? productRepository.multiplyPricesByIds(chunk, factor, MAX_PRICE)
+                        : productRepository.addToPricesByIds(chunk, delta, MAX_PRICE);
+            }
+            return total;
+        });
+        var elapsedNanos = System.nanoTime() - startedAt;
+
+        if (updated != null && updated > 0) {
+            productChangeListeners.forEach(ProductChangeListener::onCatalogChanged);
+        }
+
+        var count = updated != null ? updated : 0;
+        var rowsPerSecond = elapsedNanos > 0 ? count * 1_000_000_000L / elapsedNanos : count;
+        return new BulkPriceChangeResultDto(count, elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+}
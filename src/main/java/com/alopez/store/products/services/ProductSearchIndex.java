@@ -0,0 +1,207 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.ProductSearchConfig;
+import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.dtos.ProductDto;
+import com.alopez.store.products.dtos.ProductTextDto;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ In-memory inverted index over product name and description.
+ Every query term is matched as a prefix; documents must match all terms and are ranked by a
+ saturated tf-idf score where name occurrences weigh more than description occurrences.
+ Only each product's terms are kept; the ranked ids are resolved to rows through ProductLookup.
+ A rebuild reads the catalog without holding the lock; saves and deletes arriving meanwhile are buffered
+ and re-applied to the new state before it is swapped in.
+ */
+@Component
+public class ProductSearchIndex implements ProductChangeListener {
+    private static final double K1 = 1.2;
+
+    private final ProductRepository productRepository;
+    private final ProductLookup productLookup;
+    private final ProductSearchConfig config;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+    private final PendingProductChanges<ProductTextDto> pending = new PendingProductChanges<>();
+    private Map<Long, Set<String>> documents = new HashMap<>();
+    private NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              ProductLookup productLookup,
+                              ProductSearchConfig config) {
+        this.productRepository = productRepository;
+        this.productLookup = productLookup;
+        this.config = config;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                pending.start();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<ProductTextDto> products;
+            try {
+                products = productRepository.findTexts();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pending.cancel();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                documents = new HashMap<>();
+                postings = new TreeMap<>();
+                products.forEach(this::add);
+                // Saves and deletes that ran during the read are applied again, so none is lost.
+                pending.finish((productId, product) -> {
+                    remove(productId);
+                    add(product);
+                }, this::remove);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public List<ProductDto> search(String query, int limit) {
+        List<Long> ids;
+        lock.readLock().lock();
+        try {
+            var scores = score(query);
+            ids = scores.entrySet().stream()
+                    .sorted((a, b) -> {
+                        var byScore = Double.compare(b.getValue(), a.getValue());
+                        return byScore != 0 ? byScore : Long.compare(a.getKey(), b.getKey());
+                    })
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return productLookup.findAllInOrder(ids);
+    }
+
+    public Set<Long> matchingIds(String query) {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(score(query).keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product product, Byte previousCategoryId) {
+        var text = new ProductTextDto(product.getId(), product.getName(), product.getDescription());
+
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            add(text);
+            pending.saved(product.getId(), text);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            pending.deleted(product.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogChanged() {
+        rebuild();
+    }
+
+    private Map<Long, Double> score(String query) {
+        Map<Long, Double> scores = new HashMap<>();
+        var terms = SearchTokenizer.tokenize(query);
+        for (var i = 0; i < terms.size() && (i == 0 || !scores.isEmpty()); i++) {
+            var termScores = scoreTerm(terms.get(i));
+            if (i == 0) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+        }
+        return scores;
+    }
+
+    private Map<Long, Double> scoreTerm(String term) {
+        var scores = new HashMap<Long, Double>();
+        var expansions = 0;
+
+        for (var entry : postings.tailMap(term, true).entrySet()) {
+            if (!entry.getKey().startsWith(term) || expansions++ >= config.getMaxPrefixExpansions()) {
+                break;
+            }
+
+            // Prefix matches count in proportion to how much of the indexed term was typed.
+            var boost = (double) term.length() / entry.getKey().length();
+            var idf = Math.log(1 + (double) documents.size() / entry.getValue().size());
+            entry.getValue().forEach((id, frequency) -> {
+                var score = boost * idf * (frequency * (K1 + 1)) / (frequency + K1);
+                scores.merge(id, score, Math::max);
+            });
+        }
+
+        return scores;
+    }
+
+    private void add(ProductTextDto product) {
+        var frequencies = new HashMap<String, Integer>();
+        SearchTokenizer.tokenize(product.getName())
+                .forEach(term -> frequencies.merge(term, config.getNameWeight(), Integer::sum));
+        SearchTokenizer.tokenize(product.getDescription())
+                .forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+        documents.put(product.getId(), Set.copyOf(frequencies.keySet()));
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(product.getId(), frequency));
+    }
+
+    private void remove(Long productId) {
+        var existing = documents.remove(productId);
+        if (existing == null) {
+            return;
+        }
+
+        existing.forEach(term -> {
+            var termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(productId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        });
+    }
+}
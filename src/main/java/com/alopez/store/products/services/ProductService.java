@@ -1,13 +1,28 @@
 package com.alopez.store.products.services;
 
+import com.alopez.store.products.config.ProductFacetConfig;
+import com.alopez.store.products.config.ProductPageConfig;
+import com.alopez.store.products.config.ProductSearchConfig;
+import com.alopez.store.products.config.ProductSuggestConfig;
+import com.alopez.store.products.dtos.Category;
 import com.alopez.store.products.dtos.ProductDto;
 import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.dtos.ProductFacetsDto;
+import com.alopez.store.products.dtos.ProductFilter;
+import com.alopez.store.products.dtos.ProductPageCursor;
+import com.alopez.store.products.dtos.ProductPageDto;
+import com.alopez.store.products.dtos.ProductSort;
+import com.alopez.store.products.dtos.ProductSuggestionDto;
+import com.alopez.store.products.dtos.ProductSummaryDto;
+import com.alopez.store.products.dtos.ResourceVersion;
 import com.alopez.store.products.exceptions.CategoryNotFoundException;
+import com.alopez.store.products.exceptions.InvalidPageRequestException;
 import com.alopez.store.products.exceptions.ProductNotFoundException;
 import com.alopez.store.products.mappers.ProductMapper;
 import com.alopez.store.products.repositories.CategoryRepository;
 import com.alopez.store.products.repositories.ProductRepository;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -17,39 +32,129 @@ import java.util.List;
 public class ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
     private final ProductMapper productMapper;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductPageConfig productPageConfig;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSearchConfig productSearchConfig;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductSuggestConfig productSuggestConfig;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductFacetConfig productFacetConfig;
+    private final ProductVersionTracker productVersionTracker;
+    private final List<ProductChangeListener> productChangeListeners;
 
-    public List<ProductDto> getAllProducts(Byte categoryId) {
-        List<Product> products;
-        if (categoryId != null) {
-            products = productRepository.findByCategoryId(categoryId);
-        } else {
-            products = productRepository.findAllWithCategory();
+    public List<ProductSummaryDto> getAllProducts(Byte categoryId) {
+        return productCatalogCache.get(categoryId, () -> List.copyOf(productRepository.findSummaries(categoryId)));
+    }
+
+    public ResourceVersion getCatalogVersion(Byte categoryId) {
+        return productVersionTracker.catalogVersion(categoryId);
+    }
+
+    public ResourceVersion getProductVersion(Long id) {
+        return productVersionTracker.productVersion(id);
+    }
+
+    public ProductPageDto getProductPage(Byte categoryId, String cursor, Integer size, String sort, String direction) {
+        var sortBy = ProductSort.fromParameter(sort);
+        var descending = isDescending(direction);
+        var pageSize = resolvePageSize(size);
+        var after = cursor != null && !cursor.isBlank() ? ProductPageCursor.decode(cursor) : null;
+        var afterId = after != null ? after.getId() : null;
+
+        // One extra row tells us whether another page exists without a COUNT query.
+        var limit = PageRequest.ofSize(pageSize + 1);
+
+        var products = switch (sortBy) {
+            case ID -> descending
+                    ? productRepository.findPageOrderByIdDesc(categoryId, afterId, limit)
+                    : productRepository.findPageOrderByIdAsc(categoryId, afterId, limit);
+            case PRICE -> {
+                var afterPrice = after != null ? after.getPriceValue() : null;
+                yield descending
+                        ? productRepository.findPageOrderByPriceDesc(categoryId, afterPrice, afterId, limit)
+                        : productRepository.findPageOrderByPriceAsc(categoryId, afterPrice, afterId, limit);
+            }
+            case NAME -> {
+                var afterName = after != null ? after.getValue() : null;
+                yield descending
+                        ? productRepository.findPageOrderByNameDesc(categoryId, afterName, afterId, limit)
+                        : productRepository.findPageOrderByNameAsc(categoryId, afterName, afterId, limit);
+            }
+        };
+
+        var items = products.size() > pageSize ? products.subList(0, pageSize) : products;
+
+        String nextCursor = null;
+        if (products.size() > pageSize) {
+            nextCursor = ProductPageCursor.after(items.get(items.size() - 1), sortBy).encode();
+        }
+
+        return new ProductPageDto(items, nextCursor);
+    }
+
+    private boolean isDescending(String direction) {
+        if (direction == null || direction.isBlank() || direction.equalsIgnoreCase("asc")) {
+            return false;
+        }
+        if (direction.equalsIgnoreCase("desc")) {
+            return true;
+        }
+        throw new InvalidPageRequestException("Direction must be either asc or desc");
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return productPageConfig.getDefaultSize();
+        }
+        if (size < 1) {
+            throw new InvalidPageRequestException("Page size must be greater than 0");
         }
+        return Math.min(size, productPageConfig.getMaxSize());
+    }
+
+    public List<ProductDto> searchProducts(String query, Integer limit) {
+        var maxResults = limit == null
+                ? productSearchConfig.getDefaultLimit()
+                : Math.max(1, Math.min(limit, productSearchConfig.getMaxLimit()));
+        return productSearchIndex.search(query, maxResults);
+    }
+
+    public List<ProductSuggestionDto> suggestProducts(String query, Integer limit) {
+        var maxResults = productSuggestConfig.getMaxResults();
+        return productSuggestIndex.suggest(query, limit == null ? maxResults : Math.max(1, Math.min(limit, maxResults)));
+    }
 
-        return products.stream()
-                .map(productMapper::toDto)
-                .toList();
+    public ProductFacetsDto getProductFacets(ProductFilter filter, Integer limit) {
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice().compareTo(filter.getMaxPrice()) > 0) {
+            throw new InvalidPageRequestException("minPrice must not be greater than maxPrice");
+        }
+
+        var maxItems = limit == null
+                ? productFacetConfig.getDefaultLimit()
+                : Math.max(0, Math.min(limit, productFacetConfig.getMaxLimit()));
+        return productFacetIndex.query(filter, maxItems);
     }
 
     public ProductDto getProductById(Long id) {
-        var product = productRepository.findById(id).orElse(null);
-        if ( product == null ) {
+        var productDto = productRepository.findDtoById(id).orElse(null);
+        if (productDto == null) {
             throw new ProductNotFoundException();
         }
 
-        return productMapper.toDto(product);
+        return productDto;
     }
 
     public ProductDto createProduct(ProductDto productDto) {
-        var category = categoryRepository.findById(productDto.getCategoryId()).orElse(null);
-        if (category == null) {
-            throw new CategoryNotFoundException();
-        }
+        var category = resolveCategory(productDto.getCategoryId());
 
         var product = productMapper.toEntity(productDto);
         product.setCategory(category);
         productRepository.save(product);
+        productChangeListeners.forEach(listener -> listener.onProductSaved(product, null));
 
         productDto.setId(product.getId());
         return productDto;
@@ -61,14 +166,13 @@ public class ProductService {
             throw new ProductNotFoundException();
         }
 
-        var category = categoryRepository.findById(productDto.getCategoryId()).orElse(null);
-        if (category == null) {
-            throw new CategoryNotFoundException();
-        }
+        var category = resolveCategory(productDto.getCategoryId());
 
+        var previousCategoryId = categoryIdOf(product);
         productMapper.update(productDto, product);
         product.setCategory(category);
         productRepository.save(product);
+        productChangeListeners.forEach(listener -> listener.onProductSaved(product, previousCategoryId));
 
         productDto.setId(product.getId());
         return productDto;
@@ -80,5 +184,18 @@ public class ProductService {
             throw new ProductNotFoundException();
         }
         productRepository.delete(product);
+        productChangeListeners.forEach(listener -> listener.onProductDeleted(product));
+    }
+
+    private Category resolveCategory(Byte categoryId) {
+        if (!categoryRegistry.exists(categoryId)) {
+            throw new CategoryNotFoundException();
+        }
+        // The registry has already confirmed the row exists, so a proxy is enough to write the foreign key.
+        return categoryRepository.getReferenceById(categoryId);
+    }
+
+    private Byte categoryIdOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
     }
 }
@@ -0,0 +1,293 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.ProductSuggestConfig;
+import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.dtos.ProductPopularity;
+import com.alopez.store.products.dtos.ProductSuggestionDto;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/*
+ Radix trie over product names for type-ahead suggestions.
+ Every word start of a name is a key, so "rojas" finds "Ramo de Rosas Rojas". Products are inserted in
+ popularity order, which lets each node keep its top-N simply as the first N distinct products that
+ reached it. The built trie is immutable and swapped atomically, so lookups never take a lock.
+ Product writes only update the name map and mark the trie stale; a scheduled task rebuilds it at most once
+ per rebuildDelay, so a burst of saves costs one rebuild and never runs on the writing request's thread.
+ A reload reads the names without holding the monitor; writes arriving meanwhile are re-applied to what it read.
+ */
+@Component
+public class ProductSuggestIndex implements ProductChangeListener {
+    private static final Comparator<ProductSuggestionDto> BY_NAME =
+            Comparator.comparing(ProductSuggestionDto::getName).thenComparing(ProductSuggestionDto::getId);
+
+    private final ProductRepository productRepository;
+    private final ProductSuggestConfig config;
+
+    private final Map<Long, ProductSuggestionDto> products = new HashMap<>();
+    private final Object buildLock = new Object();
+    private final Object reloadLock = new Object();
+    private final PendingProductChanges<ProductSuggestionDto> pending = new PendingProductChanges<>();
+    private Map<Long, Long> popularity = new HashMap<>();
+    private boolean stale;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public ProductSuggestIndex(ProductRepository productRepository, ProductSuggestConfig config) {
+        this.productRepository = productRepository;
+        this.config = config;
+    }
+
+    public List<ProductSuggestionDto> suggest(String query, int limit) {
+        var key = toKey(SearchTokenizer.tokenize(query), 0);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        return snapshot.lookup(key, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                pending.start();
+            }
+
+            List<ProductSuggestionDto> suggestions;
+            Map<Long, Long> loadedPopularity;
+            try {
+                suggestions = productRepository.findSuggestions();
+                loadedPopularity = loadPopularity();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pending.cancel();
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                products.clear();
+                suggestions.forEach(suggestion -> products.put(suggestion.getId(), suggestion));
+                // Saves and deletes that ran during the read are applied again, so none is lost.
+                pending.finish(products::put, products::remove);
+                popularity = loadedPopularity;
+                stale = true;
+            }
+        }
+        rebuildIfStale();
+    }
+
+    @Scheduled(
+            initialDelayString = "${products.suggest.popularityRefreshInterval:600000}",
+            fixedDelayString = "${products.suggest.popularityRefreshInterval:600000}"
+    )
+    public void refreshPopularity() {
+        var loadedPopularity = loadPopularity();
+        synchronized (this) {
+            popularity = loadedPopularity;
+            stale = true;
+        }
+        rebuildIfStale();
+    }
+
+    @Scheduled(fixedDelayString = "${products.suggest.rebuildDelay:1000}")
+    public void rebuildIfStale() {
+        // Builds run one at a time and each copies the latest state, so an older trie never replaces a newer one.
+        synchronized (buildLock) {
+            List<ProductSuggestionDto> current;
+            Map<Long, Long> currentPopularity;
+            synchronized (this) {
+                if (!stale) {
+                    return;
+                }
+                stale = false;
+                current = List.copyOf(products.values());
+                currentPopularity = popularity;
+            }
+            snapshot = build(current, currentPopularity);
+        }
+    }
+
+    @Override
+    public synchronized void onProductSaved(Product product, Byte previousCategoryId) {
+        var suggestion = toSuggestion(product);
+        products.put(product.getId(), suggestion);
+        pending.saved(product.getId(), suggestion);
+        stale = true;
+    }
+
+    @Override
+    public synchronized void onProductDeleted(Product product) {
+        products.remove(product.getId());
+        pending.deleted(product.getId());
+        stale = true;
+    }
+
+    @Override
+    public void onCatalogChanged() {
+        reload();
+    }
+
+    private Map<Long, Long> loadPopularity() {
+        return productRepository.countOrderItemsByProduct().stream()
+                .collect(Collectors.toMap(ProductPopularity::getProductId, ProductPopularity::getOrderCount));
+    }
+
+    private ProductSuggestionDto toSuggestion(Product product) {
+        return new ProductSuggestionDto(product.getId(), product.getName());
+    }
+
+    private Snapshot build(List<ProductSuggestionDto> products, Map<Long, Long> popularity) {
+        var ranked = products.stream()
+                .sorted(Comparator.<ProductSuggestionDto>comparingLong(p -> popularity.getOrDefault(p.getId(), 0L))
+                        .reversed()
+                        .thenComparing(BY_NAME))
+                .toArray(ProductSuggestionDto[]::new);
+
+        var root = new BuildNode();
+        for (var rank = 0; rank < ranked.length; rank++) {
+            var tokens = SearchTokenizer.tokenize(ranked[rank].getName());
+            for (var start = 0; start < tokens.size(); start++) {
+                insert(root, toKey(tokens, start), rank);
+            }
+        }
+
+        return new Snapshot(root.freeze(), ranked);
+    }
+
+    private String toKey(List<String> tokens, int start) {
+        var key = String.join(" ", tokens.subList(start, tokens.size()));
+        return key.length() > config.getMaxKeyLength() ? key.substring(0, config.getMaxKeyLength()) : key;
+    }
+
+    private void insert(BuildNode root, String key, int rank) {
+        var node = root;
+        node.offer(rank, config.getMaxResults());
+
+        var position = 0;
+        while (position < key.length()) {
+            var edge = node.edges.get(key.charAt(position));
+            if (edge == null) {
+                var leaf = new BuildNode();
+                leaf.offer(rank, config.getMaxResults());
+                node.edges.put(key.charAt(position), new BuildEdge(key.substring(position), leaf));
+                return;
+            }
+
+            var common = commonPrefixLength(edge.label, key, position);
+            if (common < edge.label.length()) {
+                var split = new BuildNode();
+                split.top = Arrays.copyOf(edge.target.top, edge.target.top.length);
+                split.size = edge.target.size;
+                split.edges.put(edge.label.charAt(common), new BuildEdge(edge.label.substring(common), edge.target));
+                edge.label = edge.label.substring(0, common);
+                edge.target = split;
+            }
+
+            node = edge.target;
+            node.offer(rank, config.getMaxResults());
+            position += common;
+        }
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        var length = Math.min(label.length(), key.length() - offset);
+        var i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class BuildNode {
+        private final Map<Character, BuildEdge> edges = new HashMap<>();
+        private int[] top = new int[0];
+        private int size;
+
+        private void offer(int rank, int maxResults) {
+            if (size == maxResults || (size > 0 && top[size - 1] == rank)) {
+                return;
+            }
+            if (size == top.length) {
+                top = Arrays.copyOf(top, Math.min(maxResults, Math.max(1, size * 2)));
+            }
+            top[size++] = rank;
+        }
+
+        private Node freeze() {
+            var sorted = new TreeMap<>(edges);
+            var firstChars = new char[sorted.size()];
+            var labels = new String[sorted.size()];
+            var children = new Node[sorted.size()];
+
+            var i = 0;
+            for (var entry : sorted.entrySet()) {
+                firstChars[i] = entry.getKey();
+                labels[i] = entry.getValue().label;
+                children[i] = entry.getValue().target.freeze();
+                i++;
+            }
+            return new Node(firstChars, labels, children, Arrays.copyOf(top, size));
+        }
+    }
+
+    private static final class BuildEdge {
+        private String label;
+        private BuildNode target;
+
+        private BuildEdge(String label, BuildNode target) {
+            this.label = label;
+            this.target = target;
+        }
+    }
+
+    private record Node(char[] firstChars, String[] labels, Node[] children, int[] top) {
+    }
+
+    private record Snapshot(Node root, ProductSuggestionDto[] ranked) {
+        private static final Snapshot EMPTY =
+                new Snapshot(new Node(new char[0], new String[0], new Node[0], new int[0]), new ProductSuggestionDto[0]);
+
+        private List<ProductSuggestionDto> lookup(String key, int limit) {
+            var node = root;
+            var position = 0;
+
+            while (position < key.length()) {
+                var index = Arrays.binarySearch(node.firstChars(), key.charAt(position));
+                if (index < 0) {
+                    return List.of();
+                }
+
+                var label = node.labels()[index];
+                var remaining = key.length() - position;
+                if (remaining <= label.length()) {
+                    return label.startsWith(key.substring(position))
+                            ? toSuggestions(node.children()[index].top(), limit)
+                            : List.of();
+                }
+                if (!key.startsWith(label, position)) {
+                    return List.of();
+                }
+
+                node = node.children()[index];
+                position += label.length();
+            }
+
+            return toSuggestions(node.top(), limit);
+        }
+
+        private List<ProductSuggestionDto> toSuggestions(int[] ranks, int limit) {
+            var count = Math.min(limit, ranks.length);
+            var suggestions = new ArrayList<ProductSuggestionDto>(count);
+            for (var i = 0; i < count; i++) {
+                suggestions.add(ranked[ranks[i]]);
+            }
+            return suggestions;
+        }
+    }
+}
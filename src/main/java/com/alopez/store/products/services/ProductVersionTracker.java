@@ -0,0 +1,97 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.ProductVersionConfig;
+import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.dtos.ResourceVersion;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ Versions behind the product ETags. Every change takes the next value of a single counter: the catalog
+ carries the latest one and each product the one of its own last change. Products untouched since the
+ last full reload share the base version. The startup epoch is part of every tag, so tags handed out
+ before a restart never match afterwards.
+ Changes are only seen on this instance, so every version is also dropped once the base is maxAge old;
+ a change made through another instance is then picked up within maxAge.
+ */
+@Component
+public class ProductVersionTracker implements ProductChangeListener {
+    private final ProductVersionConfig config;
+    private final String epoch;
+    private final Map<Long, Version> productVersions = new ConcurrentHashMap<>();
+    private long counter;
+    private volatile Version baseVersion;
+    private volatile Version catalogVersion;
+
+    public ProductVersionTracker(ProductVersionConfig config) {
+        this.config = config;
+        var now = System.currentTimeMillis();
+        this.epoch = Long.toString(now, 36);
+        this.baseVersion = new Version(0, now);
+        this.catalogVersion = baseVersion;
+    }
+
+    public ResourceVersion catalogVersion(Byte categoryId) {
+        expireIfOld();
+        var scope = categoryId != null ? "c" + categoryId : "c";
+        return toResourceVersion(scope, catalogVersion);
+    }
+
+    public ResourceVersion productVersion(Long productId) {
+        expireIfOld();
+        return toResourceVersion("p" + productId, productVersions.getOrDefault(productId, baseVersion));
+    }
+
+    @Override
+    public void onProductSaved(Product product, Byte previousCategoryId) {
+        touch(product.getId());
+    }
+
+    @Override
+    public void onProductDeleted(Product product) {
+        touch(product.getId());
+    }
+
+    @Override
+    public synchronized void onCatalogChanged() {
+        reset();
+    }
+
+    private void expireIfOld() {
+        if (System.currentTimeMillis() - baseVersion.modifiedAt() < config.getMaxAge()) {
+            return;
+        }
+        synchronized (this) {
+            if (System.currentTimeMillis() - baseVersion.modifiedAt() >= config.getMaxAge()) {
+                reset();
+            }
+        }
+    }
+
+    private void reset() {
+        var version = next();
+        baseVersion = version;
+        catalogVersion = version;
+        productVersions.clear();
+    }
+
+    private synchronized void touch(Long productId) {
+        var version = next();
+        productVersions.put(productId, version);
+        catalogVersion = version;
+    }
+
+    private Version next() {
+        return new Version(++counter, System.currentTimeMillis());
+    }
+
+    private ResourceVersion toResourceVersion(String scope, Version version) {
+        var etag = "\"" + scope + "-" + epoch + "-" + version.value() + "\"";
+        return new ResourceVersion(etag, version.modifiedAt());
+    }
+
+    private record Version(long value, long modifiedAt) {
+    }
+}
@@ -0,0 +1,11 @@
+CREATE TABLE outbox_events
+(
+    id             BIGINT AUTO_INCREMENT NOT NULL,
+    aggregate_type VARCHAR(50)  NOT NULL,
+    aggregate_id   VARCHAR(64)  NOT NULL,
+    event_type     VARCHAR(50)  NOT NULL,
+    payload        JSON         NOT NULL,
+    created_at     DATETIME(6)  NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    attempts       INT          NOT NULL DEFAULT 0,
+    CONSTRAINT `PRIMARY` PRIMARY KEY (id)
+);
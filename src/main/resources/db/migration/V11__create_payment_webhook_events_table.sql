@@ -0,0 +1,12 @@
+CREATE TABLE payment_webhook_events
+(
+    id          BIGINT AUTO_INCREMENT NOT NULL,
+    order_id    BIGINT       NOT NULL,
+    status      VARCHAR(20)  NOT NULL,
+    received_at DATETIME(6)  NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    claimed_by  CHAR(36)     NULL,
+    claimed_at  DATETIME(6)  NULL,
+    CONSTRAINT `PRIMARY` PRIMARY KEY (id)
+);
+
+CREATE INDEX payment_webhook_events_claimed_by_idx ON payment_webhook_events (claimed_by);
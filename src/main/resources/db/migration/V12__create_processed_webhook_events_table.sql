@@ -0,0 +1,8 @@
+CREATE TABLE processed_webhook_events
+(
+    event_id     VARCHAR(255) NOT NULL,
+    processed_at DATETIME(6)  NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    CONSTRAINT `PRIMARY` PRIMARY KEY (event_id)
+);
+
+CREATE INDEX processed_webhook_events_processed_at_idx ON processed_webhook_events (processed_at);
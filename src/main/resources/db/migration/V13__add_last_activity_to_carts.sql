@@ -0,0 +1,8 @@
+alter table carts
+    add last_activity datetime(6) default current_timestamp(6) not null on update current_timestamp(6);
+
+update carts
+set last_activity = date_created;
+
+create index carts_customer_id_last_activity_index
+    on carts (customer_id, last_activity);
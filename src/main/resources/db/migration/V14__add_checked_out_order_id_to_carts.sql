@@ -0,0 +1,2 @@
+alter table carts
+    add checked_out_order_id bigint null;
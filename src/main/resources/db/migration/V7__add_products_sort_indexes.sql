@@ -0,0 +1,11 @@
+create index products_price_id_index
+    on products (price, id);
+
+create index products_name_id_index
+    on products (name, id);
+
+create index products_category_price_id_index
+    on products (category_id, price, id);
+
+create index products_category_name_id_index
+    on products (category_id, name, id);
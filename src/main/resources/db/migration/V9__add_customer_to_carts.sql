@@ -0,0 +1,7 @@
+alter table carts
+    add customer_id bigint null,
+    add constraint carts_customer_id_unique
+        unique (customer_id),
+    add constraint carts_users_id_fk
+        foreign key (customer_id) references users (id)
+            on delete set null;
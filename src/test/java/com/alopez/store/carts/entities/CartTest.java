@@ -0,0 +1,105 @@
+package com.alopez.store.carts.entities;
+
+import com.alopez.store.products.dtos.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartTest {
+
+    @Test
+    void addItem_ExistingProduct_IncrementsQuantityAndTotal() {
+        // Given
+        var cart = new Cart();
+        cart.addItem(product(1L, "10.00"));
+
+        // When
+        var cartItem = cart.addItem(product(1L, "10.00"));
+
+        // Then
+        assertEquals(2, cartItem.getQuantity());
+        assertEquals(1, cart.getItems().size());
+        assertEquals(new BigDecimal("20.00"), cart.getTotalPrice());
+    }
+
+    @Test
+    void setQuantity_OnItem_UpdatesCartTotal() {
+        // Given
+        var cart = new Cart();
+        cart.addItem(product(1L, "10.00"));
+        cart.addItem(product(2L, "2.50"));
+
+        // When
+        cart.getItem(2L).setQuantity(4);
+
+        // Then
+        assertEquals(new BigDecimal("20.00"), cart.getTotalPrice());
+    }
+
+    @Test
+    void removeItem_UpdatesIndexAndTotal() {
+        // Given
+        var cart = new Cart();
+        cart.addItem(product(1L, "10.00"));
+        cart.addItem(product(2L, "2.50"));
+
+        // When
+        cart.removeItem(1L);
+
+        // Then
+        assertNull(cart.getItem(1L));
+        assertNotNull(cart.getItem(2L));
+        assertEquals(new BigDecimal("2.50"), cart.getTotalPrice());
+    }
+
+    @Test
+    void setItems_RebuildsIndexAndTotal() {
+        // Given
+        var cart = new Cart();
+        cart.addItem(product(1L, "10.00"));
+        var cartItem = new CartItem();
+        cartItem.setProduct(product(3L, "1.25"));
+        cartItem.setQuantity(2);
+
+        // When
+        cart.setItems(new HashSet<>(Set.of(cartItem)));
+
+        // Then
+        assertNull(cart.getItem(1L));
+        assertSame(cartItem, cart.getItem(3L));
+        assertEquals(new BigDecimal("2.50"), cart.getTotalPrice());
+    }
+
+    @Test
+    void getTotalPrice_WithManyItems_MatchesRecomputedTotal() {
+        // Given
+        var cart = new Cart();
+        for (long id = 1; id <= 1000; id++) {
+            cart.addItem(product(id, "1.10"));
+        }
+        for (long id = 1; id <= 1000; id += 2) {
+            cart.removeItem(id);
+        }
+        cart.getItem(2L).setQuantity(10);
+
+        // When
+        var expected = cart.getItems().stream()
+                .map(CartItem::getTotalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // Then
+        assertEquals(500, cart.getItems().size());
+        assertEquals(expected, cart.getTotalPrice());
+    }
+
+    private Product product(Long id, String price) {
+        var product = new Product();
+        product.setId(id);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+}
@@ -0,0 +1,114 @@
+package com.alopez.store.carts.repositories;
+
+import com.alopez.store.carts.entities.Cart;
+import com.alopez.store.carts.entities.CartItem;
+import com.alopez.store.products.dtos.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counts the statements each fetch plan issues, so an eager mapping or a lazy load sneaking back in fails here.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class CartRepositoryTest {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    private UUID cartId;
+
+    private UUID emptyCartId;
+
+    @BeforeEach
+    void setUp() {
+        var cart = entityManager.persist(new Cart());
+        emptyCartId = entityManager.persist(new Cart()).getId();
+        for (var quantity = 1; quantity <= 3; quantity++) {
+            var product = entityManager.persist(Product.builder()
+                    .name("Product " + quantity)
+                    .price(new BigDecimal("2.50"))
+                    .build());
+            var cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(quantity);
+            entityManager.persist(cartItem);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        cartId = cart.getId();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findById_DoesNotLoadItems() {
+        // When
+        var cart = cartRepository.findById(cartId).orElseThrow();
+
+        // Then
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(entityManager.getEntityManager().getEntityManagerFactory()
+                .getPersistenceUnitUtil()
+                .isLoaded(cart, "items"));
+    }
+
+    @Test
+    void getCartWithItems_LoadsItemsAndProductsInOneQuery() {
+        // When
+        var cart = cartRepository.getCartWithItems(cartId).orElseThrow();
+        var totalPrice = cart.getTotalPrice();
+
+        // Then
+        assertEquals(3, cart.getItems().size());
+        assertEquals(0, new BigDecimal("15.00").compareTo(totalPrice));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getCartSummary_ReadsCountAndSubtotalInOneQuery() {
+        // When
+        var summary = cartRepository.getCartSummary(cartId).orElseThrow();
+
+        // Then
+        assertEquals(cartId, summary.getId());
+        assertEquals(6, summary.getItemCount());
+        assertEquals(0, new BigDecimal("15.00").compareTo(summary.getSubtotal()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getCartSummary_WithEmptyCart_ReturnsZeros() {
+        // When
+        var summary = cartRepository.getCartSummary(emptyCartId).orElseThrow();
+
+        // Then
+        assertEquals(0, summary.getItemCount());
+        assertEquals(0, summary.getSubtotal().signum());
+    }
+
+    @Test
+    void getCartSummary_WithNonExistingCart_ReturnsEmpty() {
+        // When & Then
+        assertTrue(cartRepository.getCartSummary(UUID.randomUUID()).isEmpty());
+    }
+}
@@ -0,0 +1,194 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.config.CartPricingConfig;
+import com.alopez.store.carts.dtos.PromotionType;
+import com.alopez.store.carts.entities.Cart;
+import com.alopez.store.products.dtos.Category;
+import com.alopez.store.products.dtos.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartPricingEngineTest {
+
+    @Test
+    void price_WithoutPromotions_TotalsEqualSubtotals() {
+        // Given
+        var engine = new CartPricingEngine(config());
+        var cart = cart();
+        cart.addItem(product(1L, "10.00", (byte) 1)).setQuantity(2);
+        cart.addItem(product(2L, "2.50", null));
+
+        // When
+        var priced = engine.price(cart);
+
+        // Then
+        assertEquals(new BigDecimal("22.50"), priced.getSubtotal());
+        assertEquals(0, priced.getDiscount().signum());
+        assertEquals(new BigDecimal("22.50"), priced.getTotal());
+        assertTrue(priced.getAppliedPromotions().isEmpty());
+    }
+
+    @Test
+    void price_WithCategoryPercentage_DiscountsMatchingLinesOnly() {
+        // Given
+        var engine = new CartPricingEngine(config(categoryPercentage("Electronics", (byte) 1, "10")));
+        var cart = cart();
+        cart.addItem(product(1L, "19.99", (byte) 1));
+        cart.addItem(product(2L, "5.00", (byte) 2));
+
+        // When
+        var priced = engine.price(cart);
+
+        // Then
+        assertEquals(new BigDecimal("2.00"), priced.getLine(1L).getDiscount());
+        assertEquals(new BigDecimal("17.99"), priced.getLine(1L).getTotal());
+        assertEquals(0, priced.getLine(2L).getDiscount().signum());
+        assertEquals(new BigDecimal("22.99"), priced.getTotal());
+        assertEquals(List.of("Electronics"), priced.getAppliedPromotions());
+    }
+
+    @Test
+    void price_WithBuyXGetY_GivesAwayFreeUnitsPerCompleteGroup() {
+        // Given
+        var engine = new CartPricingEngine(config(buyXGetY("3 for 2", 1L, 2, 1)));
+        var cart = cart();
+        cart.addItem(product(1L, "4.00", null)).setQuantity(7);
+
+        // When
+        var priced = engine.price(cart);
+
+        // Then
+        assertEquals(new BigDecimal("28.00"), priced.getLine(1L).getSubtotal());
+        assertEquals(new BigDecimal("8.00"), priced.getLine(1L).getDiscount());
+        assertEquals(new BigDecimal("20.00"), priced.getTotal());
+    }
+
+    @Test
+    void price_WithStackedPromotions_NeverDiscountsMoreThanTheLine() {
+        // Given
+        var engine = new CartPricingEngine(config(
+                categoryPercentage("Clearance", (byte) 1, "100"),
+                buyXGetY("1 for 1", 1L, 1, 1)));
+        var cart = cart();
+        cart.addItem(product(1L, "3.00", (byte) 1)).setQuantity(2);
+
+        // When
+        var priced = engine.price(cart);
+
+        // Then
+        assertEquals(new BigDecimal("6.00"), priced.getLine(1L).getDiscount());
+        assertEquals(0, priced.getTotal().signum());
+    }
+
+    @Test
+    void price_UnchangedCart_ReusesCachedSnapshot() {
+        // Given
+        var engine = new CartPricingEngine(config());
+        var cart = cart();
+        cart.addItem(product(1L, "10.00", null));
+        var first = engine.price(cart);
+
+        // When
+        var second = engine.price(cart);
+
+        // Then
+        assertSame(first, second);
+    }
+
+    @Test
+    void price_AfterVersionOrCatalogChange_Recomputes() {
+        // Given
+        var engine = new CartPricingEngine(config());
+        var cart = cart();
+        var product = product(1L, "10.00", null);
+        cart.addItem(product);
+        var first = engine.price(cart);
+
+        // When
+        cart.getItem(1L).setQuantity(3);
+        cart.setVersion(cart.getVersion() + 1);
+        var afterQuantity = engine.price(cart);
+        product.setPrice(new BigDecimal("12.00"));
+        engine.onProductSaved(product, null);
+        var afterPrice = engine.price(cart);
+
+        // Then
+        assertNotSame(first, afterQuantity);
+        assertEquals(new BigDecimal("30.00"), afterQuantity.getTotal());
+        assertEquals(new BigDecimal("36.00"), afterPrice.getTotal());
+    }
+
+    @Test
+    void price_SameVersionAndCatalog_DoesNotRereadLines() {
+        // Given
+        var engine = new CartPricingEngine(config());
+        var cart = cart();
+        var product = product(1L, "10.00", null);
+        cart.addItem(product);
+        var first = engine.price(cart);
+
+        // When
+        product.setPrice(new BigDecimal("12.00"));
+        var second = engine.price(cart);
+
+        // Then
+        assertSame(first, second);
+    }
+
+    @Test
+    void constructor_WithIncompletePromotion_Throws() {
+        // Given
+        var promotion = new CartPricingConfig.Promotion();
+        promotion.setName("Broken");
+        promotion.setType(PromotionType.CATEGORY_PERCENTAGE);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> new CartPricingEngine(config(promotion)));
+    }
+
+    private CartPricingConfig config(CartPricingConfig.Promotion... promotions) {
+        var config = new CartPricingConfig();
+        config.setPromotions(List.of(promotions));
+        return config;
+    }
+
+    private CartPricingConfig.Promotion categoryPercentage(String name, Byte categoryId, String percentage) {
+        var promotion = new CartPricingConfig.Promotion();
+        promotion.setName(name);
+        promotion.setType(PromotionType.CATEGORY_PERCENTAGE);
+        promotion.setCategoryId(categoryId);
+        promotion.setPercentage(new BigDecimal(percentage));
+        return promotion;
+    }
+
+    private CartPricingConfig.Promotion buyXGetY(String name, Long productId, int buy, int free) {
+        var promotion = new CartPricingConfig.Promotion();
+        promotion.setName(name);
+        promotion.setType(PromotionType.BUY_X_GET_Y);
+        promotion.setProductId(productId);
+        promotion.setBuy(buy);
+        promotion.setFree(free);
+        return promotion;
+    }
+
+    private Cart cart() {
+        var cart = new Cart();
+        cart.setId(UUID.randomUUID());
+        return cart;
+    }
+
+    private Product product(Long id, String price, Byte categoryId) {
+        var product = new Product();
+        product.setId(id);
+        product.setPrice(new BigDecimal(price));
+        if (categoryId != null) {
+            product.setCategory(new Category(categoryId));
+        }
+        return product;
+    }
+}
@@ -0,0 +1,130 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.config.CartReaperConfig;
+import com.alopez.store.carts.dtos.CartReaperStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartReaperTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CartStore cartStore;
+
+    private CartReaperConfig config;
+    private CartReaper cartReaper;
+
+    @BeforeEach
+    void setUp() {
+        config = new CartReaperConfig();
+        config.setTtlDays(7);
+        config.setChunkSize(100);
+        config.setPauseMillis(0);
+        config.setMaxChunksPerRun(5);
+        cartReaper = new CartReaper(jdbcTemplate, cartStore, config);
+    }
+
+    @Test
+    void reap_DeletesChunksUntilOneComesBackShort() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(byte[].class), eq(7), eq(100)))
+                .thenReturn(ids(100), ids(100), ids(40));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(100, 100, 40);
+
+        // When
+        cartReaper.reap();
+
+        // Then
+        verify(jdbcTemplate, times(3)).update(anyString(), any(Object[].class));
+        CartReaperStats stats = cartReaper.getStats();
+        assertEquals(1, stats.getRuns());
+        assertEquals(240, stats.getDeletedCarts());
+        assertEquals(3, stats.getLastRunChunks());
+    }
+
+    @Test
+    void reap_ForgetsReapedCartsInTheStore() {
+        // Given
+        var cartId = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(anyString(), eq(byte[].class), eq(7), eq(100))).thenReturn(List.of(toBytes(cartId)));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        // When
+        cartReaper.reap();
+
+        // Then
+        verify(cartStore).forget(cartId);
+        assertEquals(1, cartReaper.getStats().getLastRunDeletedCarts());
+    }
+
+    @Test
+    void reap_WithNothingExpired_DeletesNothing() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(byte[].class), eq(7), eq(100))).thenReturn(List.of());
+
+        // When
+        cartReaper.reap();
+
+        // Then
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verifyNoInteractions(cartStore);
+        assertEquals(1, cartReaper.getStats().getLastRunChunks());
+    }
+
+    @Test
+    void reap_StopsAfterMaxChunksPerRun() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(byte[].class), eq(7), eq(100))).thenAnswer(invocation -> ids(100));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(100);
+
+        // When
+        cartReaper.reap();
+
+        // Then
+        verify(jdbcTemplate, times(5)).update(anyString(), any(Object[].class));
+        assertEquals(500, cartReaper.getStats().getLastRunDeletedCarts());
+    }
+
+    @Test
+    void reap_WhenDisabled_DeletesNothing() {
+        // Given
+        config.setEnabled(false);
+
+        // When
+        cartReaper.reap();
+
+        // Then
+        verifyNoInteractions(jdbcTemplate, cartStore);
+        assertEquals(0, cartReaper.getStats().getRuns());
+    }
+
+    private static List<byte[]> ids(int count) {
+        var ids = new ArrayList<byte[]>(Collections.nCopies(count, null));
+        ids.replaceAll(id -> toBytes(UUID.randomUUID()));
+        return ids;
+    }
+
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
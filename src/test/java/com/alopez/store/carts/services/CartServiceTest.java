@@ -0,0 +1,267 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.dtos.CartDto;
+import com.alopez.store.carts.dtos.CartOperationRequest;
+import com.alopez.store.carts.dtos.CartOperationType;
+import com.alopez.store.carts.entities.Cart;
+import com.alopez.store.carts.exceptions.CartConflictException;
+import com.alopez.store.carts.exceptions.InvalidCartOperationException;
+import com.alopez.store.carts.mappers.CartMapper;
+import com.alopez.store.carts.repositories.CartItemRepository;
+import com.alopez.store.carts.repositories.CartRepository;
+import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.exceptions.ProductNotFoundException;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceTest {
+
+    @Mock
+    private CartStore cartStore;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CartMapper cartMapper;
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CartPricingEngine cartPricingEngine;
+
+    @InjectMocks
+    private CartService cartService;
+
+    private Cart testCart;
+
+    private static final UUID CART_TEST_UUID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID GUEST_CART_UUID = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @BeforeEach
+    void setUp() {
+        testCart = new Cart();
+        testCart.setId(CART_TEST_UUID);
+    }
+
+    @Test
+    void updateCart_AppliesOperationsInOrder() {
+        // Given
+        storeHoldsTestCart();
+        when(productRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(product(1L), product(2L)));
+        when(cartMapper.toDto(eq(testCart), any())).thenReturn(new CartDto());
+
+        // When
+        cartService.updateCart(CART_TEST_UUID, List.of(
+                new CartOperationRequest(CartOperationType.ADD, 1L, null),
+                new CartOperationRequest(CartOperationType.ADD, 2L, null),
+                new CartOperationRequest(CartOperationType.SET_QUANTITY, 1L, 5),
+                new CartOperationRequest(CartOperationType.REMOVE, 2L, null)
+        ), null);
+
+        // Then
+        assertEquals(1, testCart.getItems().size());
+        assertEquals(5, testCart.getItem(1L).getQuantity());
+        verify(cartStore, times(1)).modify(eq(CART_TEST_UUID), isNull(), any());
+    }
+
+    @Test
+    void updateCart_WithQuantityForMissingItem_LeavesCartUnchanged() {
+        // Given
+        storeHoldsTestCart();
+        when(productRepository.findAllById(Set.of(1L))).thenReturn(List.of(product(1L)));
+
+        // When & Then
+        assertThrows(ProductNotFoundException.class, () -> cartService.updateCart(CART_TEST_UUID, List.of(
+                new CartOperationRequest(CartOperationType.ADD, 1L, null),
+                new CartOperationRequest(CartOperationType.SET_QUANTITY, 2L, 3)
+        ), null));
+        assertTrue(testCart.isEmpty());
+    }
+
+    @Test
+    void updateCart_WithNonExistingProduct_ThrowsProductNotFoundException() {
+        // Given
+        when(productRepository.findAllById(Set.of(1L))).thenReturn(List.of());
+
+        // When & Then
+        assertThrows(ProductNotFoundException.class, () -> cartService.updateCart(CART_TEST_UUID, List.of(
+                new CartOperationRequest(CartOperationType.ADD, 1L, null)
+        ), null));
+        verifyNoInteractions(cartStore);
+    }
+
+    @Test
+    void updateCart_WithSetQuantityWithoutQuantity_ThrowsInvalidCartOperationException() {
+        // When & Then
+        assertThrows(InvalidCartOperationException.class, () -> cartService.updateCart(CART_TEST_UUID, List.of(
+                new CartOperationRequest(CartOperationType.SET_QUANTITY, 1L, null)
+        ), null));
+        verifyNoInteractions(cartStore, productRepository);
+    }
+
+    @Test
+    void mergeCarts_IntoExistingCustomerCart_MergesItemsAndDeletesGuestCart() {
+        // Given
+        runTransactions();
+        when(cartRepository.findIdByCustomerId(1L)).thenReturn(Optional.of(CART_TEST_UUID));
+        when(cartItemRepository.mergeGuestItems(GUEST_CART_UUID, CART_TEST_UUID)).thenReturn(2);
+
+        // When
+        UUID cartId = cartService.mergeCarts(GUEST_CART_UUID, 1L);
+
+        // Then
+        assertEquals(CART_TEST_UUID, cartId);
+        verify(cartRepository).incrementVersion(CART_TEST_UUID);
+        verify(cartRepository).deleteGuestCart(GUEST_CART_UUID);
+        verify(cartStore, times(2)).forget(GUEST_CART_UUID);
+        verify(cartStore, times(2)).forget(CART_TEST_UUID);
+    }
+
+    @Test
+    void mergeCarts_WithoutCustomerCart_ClaimsGuestCart() {
+        // Given
+        runTransactions();
+        when(cartRepository.findIdByCustomerId(1L)).thenReturn(Optional.empty());
+        when(cartRepository.claimGuestCart(GUEST_CART_UUID, 1L)).thenReturn(1);
+
+        // When
+        UUID cartId = cartService.mergeCarts(GUEST_CART_UUID, 1L);
+
+        // Then
+        assertEquals(GUEST_CART_UUID, cartId);
+        verifyNoInteractions(cartItemRepository);
+        verify(cartRepository, never()).deleteGuestCart(any());
+    }
+
+    @Test
+    void mergeCarts_WhenConcurrentLoginClaimedCart_MergesIntoThatCart() {
+        // Given
+        runTransactions();
+        when(cartRepository.findIdByCustomerId(1L))
+                .thenReturn(Optional.empty(), Optional.empty(), Optional.of(CART_TEST_UUID));
+        when(cartRepository.claimGuestCart(GUEST_CART_UUID, 1L)).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(cartItemRepository.mergeGuestItems(GUEST_CART_UUID, CART_TEST_UUID)).thenReturn(0);
+
+        // When
+        UUID cartId = cartService.mergeCarts(GUEST_CART_UUID, 1L);
+
+        // Then
+        assertEquals(CART_TEST_UUID, cartId);
+        verify(cartRepository, never()).incrementVersion(any());
+        verify(cartRepository).deleteGuestCart(GUEST_CART_UUID);
+    }
+
+    @Test
+    void mergeCarts_WithoutGuestCart_ReturnsCustomerCart() {
+        // Given
+        runTransactions();
+        when(cartRepository.findIdByCustomerId(1L)).thenReturn(Optional.of(CART_TEST_UUID));
+
+        // When
+        UUID cartId = cartService.mergeCarts(null, 1L);
+
+        // Then
+        assertEquals(CART_TEST_UUID, cartId);
+        verifyNoInteractions(cartItemRepository);
+        verify(cartRepository, never()).deleteGuestCart(any());
+    }
+
+    private void runTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void clearCheckedOutItems_WithUnchangedCart_ClearsIt() {
+        // Given
+        testCart.addItem(product(1L));
+        when(cartStore.modify(eq(CART_TEST_UUID), eq(3L), any())).thenAnswer(invocation ->
+                invocation.<Function<Cart, ?>>getArgument(2).apply(testCart));
+
+        // When
+        cartService.clearCheckedOutItems(CART_TEST_UUID, 10L, 3L, Map.of(1L, 1));
+
+        // Then
+        assertTrue(testCart.isEmpty());
+        assertEquals(10L, testCart.getCheckedOutOrderId());
+    }
+
+    @Test
+    void clearCheckedOutItems_WithCartChangedSinceCheckout_RemovesOnlyOrderedQuantities() {
+        // Given
+        testCart.addItem(product(1L)).setQuantity(3);
+        testCart.addItem(product(2L));
+        testCart.addItem(product(3L));
+        when(cartStore.modify(eq(CART_TEST_UUID), eq(3L), any())).thenThrow(new CartConflictException());
+        when(cartStore.modify(eq(CART_TEST_UUID), any())).thenAnswer(invocation ->
+                invocation.<Function<Cart, ?>>getArgument(1).apply(testCart));
+
+        // When
+        cartService.clearCheckedOutItems(CART_TEST_UUID, 10L, 3L, Map.of(1L, 2, 2L, 1));
+
+        // Then
+        assertEquals(1, testCart.getItem(1L).getQuantity());
+        assertNull(testCart.getItem(2L));
+        assertNotNull(testCart.getItem(3L));
+        assertEquals(10L, testCart.getCheckedOutOrderId());
+    }
+
+    @Test
+    void clearCheckedOutItems_ForOrderAlreadyCleared_KeepsItemsAddedSince() {
+        // Given
+        testCart.setCheckedOutOrderId(10L);
+        testCart.addItem(product(1L)).setQuantity(2);
+        when(cartStore.modify(eq(CART_TEST_UUID), eq(3L), any())).thenThrow(new CartConflictException());
+        when(cartStore.modify(eq(CART_TEST_UUID), any())).thenAnswer(invocation ->
+                invocation.<Function<Cart, ?>>getArgument(1).apply(testCart));
+
+        // When
+        cartService.clearCheckedOutItems(CART_TEST_UUID, 10L, 3L, Map.of(1L, 2));
+
+        // Then
+        assertEquals(2, testCart.getItem(1L).getQuantity());
+    }
+
+    private void storeHoldsTestCart() {
+        when(cartStore.modify(eq(CART_TEST_UUID), isNull(), any())).thenAnswer(invocation ->
+                invocation.<Function<Cart, ?>>getArgument(2).apply(testCart));
+    }
+
+    private Product product(Long id) {
+        var product = new Product();
+        product.setId(id);
+        product.setPrice(new BigDecimal("10.00"));
+        return product;
+    }
+}
@@ -0,0 +1,69 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.exceptions.CartNotFoundException;
+import com.alopez.store.orders.dtos.OrderCheckedOutEvent;
+import com.alopez.store.outbox.dtos.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CheckedOutCartSubscriberTest {
+
+    @Mock
+    private CartService cartService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private CheckedOutCartSubscriber subscriber;
+
+    private static final UUID CART_TEST_UUID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Test
+    void onEvent_WithCheckedOutOrder_ClearsCheckedOutItems() throws Exception {
+        // Given
+        var payload = objectMapper.writeValueAsString(new OrderCheckedOutEvent(1L, CART_TEST_UUID, 3L, Map.of(7L, 2)));
+
+        // When
+        subscriber.onEvent(event("ORDER_CHECKED_OUT", payload));
+
+        // Then
+        verify(cartService).clearCheckedOutItems(CART_TEST_UUID, 1L, 3L, Map.of(7L, 2));
+    }
+
+    @Test
+    void onEvent_WithOtherEventType_IgnoresIt() {
+        // When
+        subscriber.onEvent(event("ORDER_CREATED", "{}"));
+
+        // Then
+        verifyNoInteractions(cartService);
+    }
+
+    @Test
+    void onEvent_WhenCartIsGone_TakesTheEvent() throws Exception {
+        // Given
+        var payload = objectMapper.writeValueAsString(new OrderCheckedOutEvent(1L, CART_TEST_UUID, 3L, Map.of(7L, 2)));
+        doThrow(new CartNotFoundException()).when(cartService).clearCheckedOutItems(CART_TEST_UUID, 1L, 3L, Map.of(7L, 2));
+
+        // When & Then
+        assertDoesNotThrow(() -> subscriber.onEvent(event("ORDER_CHECKED_OUT", payload)));
+    }
+
+    private OutboxEvent event(String eventType, String payload) {
+        return new OutboxEvent(1L, "order", "1", eventType, payload, LocalDateTime.now(), 0, 0);
+    }
+}
@@ -0,0 +1,177 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.config.CartStoreConfig;
+import com.alopez.store.carts.entities.Cart;
+import com.alopez.store.carts.entities.CartItem;
+import com.alopez.store.carts.exceptions.CartConflictException;
+import com.alopez.store.carts.exceptions.CartNotFoundException;
+import com.alopez.store.carts.repositories.CartItemRepository;
+import com.alopez.store.carts.repositories.CartRepository;
+import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.exceptions.ProductNotFoundException;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JpaCartStoreTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private CartStoreConfig config;
+    private JpaCartStore cartStore;
+
+    private static final UUID CART_TEST_UUID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @BeforeEach
+    void setUp() {
+        config = new CartStoreConfig();
+        cartStore = new JpaCartStore(cartRepository, cartItemRepository, productRepository, transactionTemplate, config);
+    }
+
+    @Test
+    void addProduct_WithUpsert_DoesNotLoadCart() {
+        // Given
+        runTransactions();
+        var cartItem = new CartItem();
+        cartItem.setProduct(product());
+        cartItem.setQuantity(3);
+        when(cartRepository.incrementVersion(CART_TEST_UUID)).thenReturn(1);
+        when(cartItemRepository.incrementQuantity(CART_TEST_UUID, 1L)).thenReturn(2);
+        when(cartItemRepository.findWithProduct(CART_TEST_UUID, 1L)).thenReturn(Optional.of(cartItem));
+
+        // When
+        Integer quantity = cartStore.addProduct(CART_TEST_UUID, 1L, CartItem::getQuantity);
+
+        // Then
+        assertEquals(3, quantity);
+        verify(cartRepository, never()).getCartWithItems(any());
+        verify(cartRepository, never()).save(any());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void addProduct_WithUpsertAndNonExistingCart_ThrowsCartNotFoundException() {
+        // Given
+        runTransactions();
+        when(cartRepository.incrementVersion(CART_TEST_UUID)).thenReturn(0);
+
+        // When & Then
+        assertThrows(CartNotFoundException.class, () -> cartStore.addProduct(CART_TEST_UUID, 1L, CartItem::getQuantity));
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    void addProduct_WithUpsertAndNonExistingProduct_ThrowsProductNotFoundException() {
+        // Given
+        runTransactions();
+        when(cartRepository.incrementVersion(CART_TEST_UUID)).thenReturn(1);
+        when(cartItemRepository.incrementQuantity(CART_TEST_UUID, 1L)).thenReturn(0);
+
+        // When & Then
+        assertThrows(ProductNotFoundException.class, () -> cartStore.addProduct(CART_TEST_UUID, 1L, CartItem::getQuantity));
+    }
+
+    @Test
+    void addProduct_WithoutUpsert_SavesWholeCart() {
+        // Given
+        runTransactions();
+        config.setUpsertItems(false);
+        var cart = cart(0L);
+        when(cartRepository.getCartWithItems(CART_TEST_UUID)).thenReturn(Optional.of(cart));
+        when(cartRepository.compareAndIncrementVersion(CART_TEST_UUID, 0L)).thenReturn(1);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product()));
+
+        // When
+        Integer quantity = cartStore.addProduct(CART_TEST_UUID, 1L, CartItem::getQuantity);
+
+        // Then
+        assertEquals(1, quantity);
+        verify(cartRepository).save(cart);
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    void modify_WhenVersionWasTaken_ReappliesMutationToFreshCart() {
+        // Given
+        runTransactions();
+        when(cartRepository.getCartWithItems(CART_TEST_UUID)).thenReturn(Optional.of(cart(4L)), Optional.of(cart(5L)));
+        when(cartRepository.compareAndIncrementVersion(CART_TEST_UUID, 4L)).thenReturn(0);
+        when(cartRepository.compareAndIncrementVersion(CART_TEST_UUID, 5L)).thenReturn(1);
+
+        // When
+        Long version = cartStore.modify(CART_TEST_UUID, Cart::getVersion);
+
+        // Then
+        assertEquals(6L, version);
+        verify(cartRepository, times(1)).save(any());
+    }
+
+    @Test
+    void modify_WhenRetriesRunOut_ThrowsCartConflictException() {
+        // Given
+        runTransactions();
+        config.setMaxRetries(2);
+        when(cartRepository.getCartWithItems(CART_TEST_UUID)).thenAnswer(invocation -> Optional.of(cart(4L)));
+        when(cartRepository.compareAndIncrementVersion(CART_TEST_UUID, 4L)).thenReturn(0);
+
+        // When & Then
+        assertThrows(CartConflictException.class, () -> cartStore.modify(CART_TEST_UUID, Cart::getVersion));
+        verify(cartRepository, times(3)).compareAndIncrementVersion(CART_TEST_UUID, 4L);
+        verify(cartRepository, never()).save(any());
+    }
+
+    @Test
+    void modify_WithStaleExpectedVersion_ThrowsCartConflictExceptionWithoutRetry() {
+        // Given
+        runTransactions();
+        when(cartRepository.getCartWithItems(CART_TEST_UUID)).thenReturn(Optional.of(cart(5L)));
+
+        // When & Then
+        assertThrows(CartConflictException.class, () -> cartStore.modify(CART_TEST_UUID, 4L, Cart::getVersion));
+        verify(cartRepository, times(1)).getCartWithItems(CART_TEST_UUID);
+        verify(cartRepository, never()).compareAndIncrementVersion(any(), any());
+    }
+
+    private Cart cart(Long version) {
+        var cart = new Cart();
+        cart.setId(CART_TEST_UUID);
+        cart.setVersion(version);
+        return cart;
+    }
+
+    private void runTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private Product product() {
+        var product = new Product();
+        product.setId(1L);
+        product.setPrice(new BigDecimal("10.00"));
+        return product;
+    }
+}
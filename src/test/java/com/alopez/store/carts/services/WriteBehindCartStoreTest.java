@@ -0,0 +1,267 @@
+package com.alopez.store.carts.services;
+
+import com.alopez.store.carts.config.CartStoreConfig;
+import com.alopez.store.carts.dtos.CartStoreStats;
+import com.alopez.store.carts.dtos.CartSummaryDto;
+import com.alopez.store.carts.entities.Cart;
+import com.alopez.store.carts.entities.CartItem;
+import com.alopez.store.carts.exceptions.CartConflictException;
+import com.alopez.store.carts.exceptions.CartNotFoundException;
+import com.alopez.store.carts.repositories.CartRepository;
+import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.exceptions.ProductNotFoundException;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindCartStoreTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WriteBehindCartStore cartStore;
+
+    private static final UUID FIRST_CART = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID SECOND_CART = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @BeforeEach
+    void setUp() {
+        var config = new CartStoreConfig();
+        config.setMaxCarts(1);
+        cartStore = new WriteBehindCartStore(cartRepository, productRepository, jdbcTemplate, transactionManager, config);
+    }
+
+    @Test
+    void read_LoadsCartOnlyOnce() {
+        // Given
+        when(cartRepository.getCartWithItems(FIRST_CART)).thenReturn(Optional.of(cart(FIRST_CART)));
+
+        // When
+        cartStore.read(FIRST_CART, Cart::getId);
+        UUID cartId = cartStore.read(FIRST_CART, Cart::getId);
+
+        // Then
+        assertEquals(FIRST_CART, cartId);
+        verify(cartRepository, times(1)).getCartWithItems(FIRST_CART);
+    }
+
+    @Test
+    void read_WithNonExistingCart_ThrowsCartNotFoundException() {
+        // Given
+        when(cartRepository.getCartWithItems(FIRST_CART)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(CartNotFoundException.class, () -> cartStore.read(FIRST_CART, Cart::getId));
+    }
+
+    @Test
+    void modify_DoesNotWriteUntilFlushed() {
+        // Given
+        when(cartRepository.getCartWithItems(FIRST_CART)).thenReturn(Optional.of(cart(FIRST_CART)));
+
+        // When
+        cartStore.modify(FIRST_CART, cart -> cart.addItem(product(1L)));
+        cartStore.modify(FIRST_CART, cart -> cart.addItem(product(2L)));
+
+        // Then
+        verifyNoInteractions(jdbcTemplate);
+        assertEquals(1, cartStore.getStats().getDirtyCarts());
+
+        // When
+        cartStore.flushDirty();
+
+        // Then
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList());
+        CartStoreStats stats = cartStore.getStats();
+        assertEquals(0, stats.getDirtyCarts());
+        assertEquals(1, stats.getFlushedCarts());
+    }
+
+    @Test
+    void flushDirty_WhenWriteFails_KeepsCartDirty() {
+        // Given
+        when(cartRepository.getCartWithItems(FIRST_CART)).thenReturn(Optional.of(cart(FIRST_CART)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+        cartStore.modify(FIRST_CART, cart -> cart.addItem(product(1L)));
+
+        // When
+        cartStore.flushDirty();
+
+        // Then
+        CartStoreStats stats = cartStore.getStats();
+        assertEquals(1, stats.getDirtyCarts());
+        assertEquals(1, stats.getFlushFailures());
+        assertEquals(0, stats.getFlushedCarts());
+    }
+
+    @Test
+    void modify_OverMaxCarts_FlushesAndEvictsEldestCart() {
+        // Given
+        when(cartRepository.getCartWithItems(FIRST_CART)).thenReturn(Optional.of(cart(FIRST_CART)));
+        when(cartRepository.getCartWithItems(SECOND_CART)).thenReturn(Optional.of(cart(SECOND_CART)));
+        cartStore.modify(FIRST_CART, cart -> cart.addItem(product(1L)));
+
+        // When
+        cartStore.modify(SECOND_CART, cart -> cart.addItem(product(1L)));
+
+        // Then
+        CartStoreStats stats = cartStore.getStats();
+        assertEquals(1, stats.getCachedCarts());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(1, stats.getFlushedCarts());
+        assertEquals(1, stats.getDirtyCarts());
+    }
+
+    @Test
+    void addProduct_IncrementsCachedItem() {
+        // Given
+        when(cartRepository.getCartWithItems(FIRST_CART)).thenReturn(Optional.of(cart(FIRST_CART)));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+        cartStore.addProduct(FIRST_CART, 1L, CartItem::getQuantity);
+
+        // When
+        Integer quantity = cartStore.addProduct(FIRST_CART, 1L, CartItem::getQuantity);
+
+        // Then
+        assertEquals(2, quantity);
+        assertEquals(1, cartStore.getStats().getDirtyCarts());
+    }
+
+    @Test
+    void addProduct_WithNonExistingProduct_ThrowsProductNotFoundException() {
+        // Given
+        when(cartRepository.getCartWithItems(FIRST_CART)).thenReturn(Optional.of(cart(FIRST_CART)));
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ProductNotFoundException.class, () -> cartStore.addProduct(FIRST_CART, 1L, CartItem::getQuantity));
+        assertEquals(0, cartStore.getStats().getDirtyCarts());
+    }
+
+    @Test
+    void modify_WithStaleExpectedVersion_ThrowsCartConflictException() {
+        // Given
+        when(cartRepository.getCartWithItems(FIRST_CART)).thenReturn(Optional.of(cart(FIRST_CART)));
+        cartStore.modify(FIRST_CART, cart -> cart.addItem(product(1L)));
+
+        // When & Then
+        assertThrows(CartConflictException.class, () -> cartStore.modify(FIRST_CART, 0L, cart -> cart.addItem(product(2L))));
+        assertEquals(1L, cartStore.read(FIRST_CART, Cart::getVersion));
+        assertNull(cartStore.read(FIRST_CART, cart -> cart.getItem(2L)));
+    }
+
+    @Test
+    void addProduct_FromConcurrentThreads_LosesNoIncrements() throws Exception {
+        // Given
+        when(cartRepository.getCartWithItems(FIRST_CART)).thenReturn(Optional.of(cart(FIRST_CART)));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+        var threads = 8;
+        var addsPerThread = 200;
+        var executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (var thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (var add = 0; add < addsPerThread; add++) {
+                        cartStore.addProduct(FIRST_CART, 1L, CartItem::getQuantity);
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals((Integer) (threads * addsPerThread), cartStore.read(FIRST_CART, cart -> cart.getItem(1L).getQuantity()));
+        assertEquals((long) threads * addsPerThread, cartStore.read(FIRST_CART, Cart::getVersion));
+    }
+
+    @Test
+    void summarize_WithCachedCart_UsesCachedItems() {
+        // Given
+        when(cartRepository.getCartWithItems(FIRST_CART)).thenReturn(Optional.of(cart(FIRST_CART)));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+        cartStore.addProduct(FIRST_CART, 1L, CartItem::getQuantity);
+        cartStore.addProduct(FIRST_CART, 1L, CartItem::getQuantity);
+
+        // When
+        var summary = cartStore.summarize(FIRST_CART);
+
+        // Then
+        assertEquals(2, summary.getItemCount());
+        assertEquals(new BigDecimal("20.00"), summary.getSubtotal());
+        assertEquals(2L, summary.getVersion());
+        verify(cartRepository, never()).getCartSummary(any());
+    }
+
+    @Test
+    void summarize_WithUncachedCart_DoesNotLoadCart() {
+        // Given
+        var expected = new CartSummaryDto(FIRST_CART, 4L, 3L, new BigDecimal("30.00"));
+        when(cartRepository.getCartSummary(FIRST_CART)).thenReturn(Optional.of(expected));
+
+        // When
+        var summary = cartStore.summarize(FIRST_CART);
+
+        // Then
+        assertSame(expected, summary);
+        verify(cartRepository, never()).getCartWithItems(any());
+    }
+
+    @Test
+    void flush_WithUncachedCart_DoesNothing() {
+        // When
+        cartStore.flush(FIRST_CART);
+
+        // Then
+        verifyNoInteractions(jdbcTemplate, cartRepository);
+    }
+
+    private Cart cart(UUID id) {
+        var cart = new Cart();
+        cart.setId(id);
+        return cart;
+    }
+
+    private Product product(Long id) {
+        var product = new Product();
+        product.setId(id);
+        product.setPrice(new BigDecimal("10.00"));
+        return product;
+    }
+}
@@ -0,0 +1,40 @@
+package com.alopez.store.common.ids;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    void next_ReturnsVersion7WithCurrentTimestamp() {
+        // Given
+        var before = System.currentTimeMillis();
+
+        // When
+        UUID id = TimeOrderedUuidGenerator.next();
+
+        // Then
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        var millis = id.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis - System.currentTimeMillis() < 1000);
+    }
+
+    @Test
+    void next_InTightLoop_ReturnsStrictlyIncreasingIds() {
+        // Given
+        var previous = TimeOrderedUuidGenerator.next();
+
+        for (var i = 0; i < 100_000; i++) {
+            // When
+            var id = TimeOrderedUuidGenerator.next();
+
+            // Then
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), id.getMostSignificantBits()) < 0);
+            previous = id;
+        }
+    }
+}
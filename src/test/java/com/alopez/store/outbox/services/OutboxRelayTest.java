@@ -0,0 +1,144 @@
+package com.alopez.store.outbox.services;
+
+import com.alopez.store.outbox.config.OutboxConfig;
+import com.alopez.store.outbox.dtos.OutboxBacklog;
+import com.alopez.store.outbox.dtos.OutboxEvent;
+import com.alopez.store.outbox.repositories.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private OutboxConfig config;
+
+    private final List<Long> received = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        config = new OutboxConfig();
+        config.setBatchSize(2);
+        config.setMaxBatchesPerRun(5);
+        config.setMaxAttempts(3);
+    }
+
+    @Test
+    void relay_DeliversEventsInOrderAndDeletesThem() {
+        // Given
+        var relay = new OutboxRelay(outboxEventRepository, List.of(event -> received.add(event.getId())), config);
+        when(outboxEventRepository.findBatch(3, 2))
+                .thenReturn(events(1, 2))
+                .thenReturn(events(3));
+
+        // When
+        relay.relay();
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), received);
+        verify(outboxEventRepository).deleteByIds(List.of(1L, 2L));
+        verify(outboxEventRepository).deleteByIds(List.of(3L));
+    }
+
+    @Test
+    void relay_WhenSubscriberFails_StopsAtFailedEventAndCountsAttempt() {
+        // Given
+        OutboxSubscriber failingOnSecond = event -> {
+            if (event.getId() == 2L) {
+                throw new IllegalStateException("subscriber down");
+            }
+            received.add(event.getId());
+        };
+        var relay = new OutboxRelay(outboxEventRepository, List.of(failingOnSecond), config);
+        when(outboxEventRepository.findBatch(3, 2)).thenReturn(events(1, 2));
+
+        // When
+        relay.relay();
+
+        // Then
+        assertEquals(List.of(1L), received);
+        verify(outboxEventRepository).deleteByIds(List.of(1L));
+        verify(outboxEventRepository).incrementAttempts(2L);
+        verify(outboxEventRepository, times(1)).findBatch(anyInt(), anyInt());
+    }
+
+    @Test
+    void relay_WithFullBatches_StopsAfterMaxBatchesPerRun() {
+        // Given
+        var relay = new OutboxRelay(outboxEventRepository, List.of(event -> received.add(event.getId())), config);
+        when(outboxEventRepository.findBatch(3, 2)).thenAnswer(invocation -> events(1, 2));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(outboxEventRepository, times(5)).findBatch(3, 2);
+        verify(outboxEventRepository, times(5)).deleteByIds(anyList());
+    }
+
+    @Test
+    void relay_WhenDisabled_DoesNothing() {
+        // Given
+        config.setEnabled(false);
+        var relay = new OutboxRelay(outboxEventRepository, List.of(), config);
+
+        // When
+        relay.relay();
+
+        // Then
+        verifyNoInteractions(outboxEventRepository);
+    }
+
+    @Test
+    void relay_WithoutSubscribers_KeepsEvents() {
+        // Given
+        var relay = new OutboxRelay(outboxEventRepository, List.of(), config);
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(outboxEventRepository, never()).findBatch(anyInt(), anyInt());
+        verify(outboxEventRepository, never()).deleteByIds(anyList());
+    }
+
+    @Test
+    void getStats_ReportsBacklogAndLag() {
+        // Given
+        var relay = new OutboxRelay(outboxEventRepository, List.of(event -> received.add(event.getId())), config);
+        when(outboxEventRepository.findBatch(3, 2)).thenReturn(events(1));
+        when(outboxEventRepository.getBacklog(3)).thenReturn(new OutboxBacklog(4, 1, 2500));
+        relay.relay();
+
+        // When
+        var stats = relay.getStats();
+
+        // Then
+        assertEquals(4, stats.getPendingEvents());
+        assertEquals(1, stats.getParkedEvents());
+        assertEquals(2500, stats.getOldestPendingAgeMillis());
+        assertEquals(1, stats.getLastRunPublishedEvents());
+        assertEquals(10, stats.getLastPublishedLagMillis());
+    }
+
+    private List<OutboxEvent> events(long... ids) {
+        return LongStream.of(ids)
+                .mapToObj(id -> new OutboxEvent(id, "order", String.valueOf(id), "ORDER_CREATED", "{}", LocalDateTime.now(), 0, id * 10))
+                .toList();
+    }
+}
@@ -1,21 +1,28 @@
 package com.alopez.store.payments.services;
 
 import com.alopez.store.auth.services.AuthService;
+import com.alopez.store.carts.config.CartPricingConfig;
 import com.alopez.store.carts.entities.Cart;
 import com.alopez.store.carts.entities.CartItem;
 import com.alopez.store.carts.exceptions.CartEmptyException;
 import com.alopez.store.carts.exceptions.CartNotFoundException;
 import com.alopez.store.carts.repositories.CartRepository;
+import com.alopez.store.carts.services.CartPricingEngine;
 import com.alopez.store.carts.services.CartService;
+import com.alopez.store.orders.dtos.OrderCheckedOutEvent;
+import com.alopez.store.orders.dtos.OrderEventType;
 import com.alopez.store.orders.entities.Order;
 import com.alopez.store.orders.entities.PaymentStatus;
 import com.alopez.store.orders.repositories.OrderRepository;
+import com.alopez.store.outbox.services.OutboxService;
+import com.alopez.store.payments.config.IdempotencyConfig;
 import com.alopez.store.payments.dtos.CheckOutRequest;
 import com.alopez.store.payments.dtos.CheckOutResponse;
 import com.alopez.store.payments.dtos.CheckoutSession;
 import com.alopez.store.payments.dtos.PaymentResult;
 import com.alopez.store.payments.dtos.WebhookRequest;
 import com.alopez.store.payments.exceptions.PaymentException;
+import com.alopez.store.payments.exceptions.WebhookQueueFullException;
 import com.alopez.store.products.dtos.Product;
 import com.alopez.store.users.entities.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,14 +31,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -52,6 +66,21 @@ class CheckOutServiceTest {
     @Mock
     private CartService cartService;
 
+    @Spy
+    private CartPricingEngine cartPricingEngine = new CartPricingEngine(new CartPricingConfig());
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(new IdempotencyConfig());
+
+    @Mock
+    private PaymentWebhookQueue paymentWebhookQueue;
+
     @InjectMocks
     private CheckOutService checkOutService;
 
@@ -112,13 +141,13 @@ class CheckOutServiceTest {
     @Test
     void checkOut_WithValidCart_ReturnsCheckoutUrl() {
         // Given
+        runTransactions();
+        runTransactionsWithoutResult();
         when(cartRepository.getCartWithItems(CART_TEST_UUID)).thenReturn(Optional.of(testCart));
         when(authService.getCurrentUser()).thenReturn(testUser);
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
         when(paymentGateway.createCheckoutSession(any(Order.class))).thenReturn(checkoutSession);
 
-        doNothing().when(cartService).clearCart(CART_TEST_UUID);
-
         // When
         CheckOutResponse response = checkOutService.checkOut(checkOutRequest);
 
@@ -126,16 +155,26 @@ class CheckOutServiceTest {
         assertNotNull(response);
         assertEquals("https://checkout.example.com/session123", response.getCheckoutUrl());
         
+        verify(cartService).flush(CART_TEST_UUID);
         verify(cartRepository).getCartWithItems(CART_TEST_UUID);
         verify(authService).getCurrentUser();
         verify(orderRepository).save(any(Order.class));
         verify(paymentGateway).createCheckoutSession(any(Order.class));
-        verify(cartService).clearCart(CART_TEST_UUID);
+        verify(outboxService).publish(eq("order"), any(), eq(OrderEventType.ORDER_CREATED.name()), any());
+
+        var payload = ArgumentCaptor.forClass(Object.class);
+        verify(outboxService).publish(eq("order"), any(), eq(OrderEventType.ORDER_CHECKED_OUT.name()), payload.capture());
+        var checkedOut = (OrderCheckedOutEvent) payload.getValue();
+        assertEquals(CART_TEST_UUID, checkedOut.getCartId());
+        assertEquals(0L, checkedOut.getCartVersion());
+        assertEquals(Map.of(1L, 2), checkedOut.getOrderedQuantities());
+        verify(cartService, never()).clearCheckedOutItems(any(), any(), any(), any());
     }
 
     @Test
     void checkOut_WithNonExistingCart_ThrowsCartNotFoundException() {
         // Given
+        runTransactions();
         when(cartRepository.getCartWithItems(CART_TEST_UUID)).thenReturn(Optional.empty());
 
         // When & Then
@@ -144,12 +183,13 @@ class CheckOutServiceTest {
         verify(cartRepository).getCartWithItems(CART_TEST_UUID);
         verify(orderRepository, never()).save(any());
         verify(paymentGateway, never()).createCheckoutSession(any());
-        verify(cartService, never()).clearCart(any(UUID.class));
+        verify(outboxService, never()).publish(any(), any(), eq(OrderEventType.ORDER_CHECKED_OUT.name()), any());
     }
 
     @Test
     void checkOut_WithEmptyCart_ThrowsCartEmptyException() {
         // Given
+        runTransactions();
         testCart.setItems(Collections.emptySet());
         when(cartRepository.getCartWithItems(CART_TEST_UUID)).thenReturn(Optional.of(testCart));
 
@@ -159,12 +199,14 @@ class CheckOutServiceTest {
         verify(cartRepository).getCartWithItems(CART_TEST_UUID);
         verify(orderRepository, never()).save(any());
         verify(paymentGateway, never()).createCheckoutSession(any());
-        verify(cartService, never()).clearCart(any(UUID.class));
+        verify(outboxService, never()).publish(any(), any(), eq(OrderEventType.ORDER_CHECKED_OUT.name()), any());
     }
 
     @Test
     void checkOut_WithPaymentException_DeletesOrderAndRethrows() {
         // Given
+        runTransactions();
+        runTransactionsWithoutResult();
         when(cartRepository.getCartWithItems(CART_TEST_UUID)).thenReturn(Optional.of(testCart));
         when(authService.getCurrentUser()).thenReturn(testUser);
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
@@ -178,56 +220,126 @@ class CheckOutServiceTest {
         verify(orderRepository).save(any(Order.class));
         verify(orderRepository).delete(any(Order.class));
         verify(paymentGateway).createCheckoutSession(any(Order.class));
-        verify(cartService, never()).clearCart(any(UUID.class));
+        verify(outboxService).publish(eq("order"), any(), eq(OrderEventType.ORDER_DELETED.name()), any());
+        verify(outboxService, never()).publish(any(), any(), eq(OrderEventType.ORDER_CHECKED_OUT.name()), any());
     }
 
     @Test
-    void handleWebhookEvent_WithValidPaymentResult_UpdatesOrderStatus() {
+    void checkOut_CallsPaymentGatewayOutsideTransaction() {
         // Given
-        when(paymentGateway.parseWebhookRequest(webhookRequest)).thenReturn(Optional.of(paymentResult));
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        runTransactionsWithoutResult();
+        var inTransaction = new AtomicBoolean();
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+            }
+        });
+        when(cartRepository.getCartWithItems(CART_TEST_UUID)).thenReturn(Optional.of(testCart));
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        when(paymentGateway.createCheckoutSession(any(Order.class))).thenAnswer(invocation -> {
+            // A slow provider must not keep the order transaction, and with it a connection, open.
+            assertFalse(inTransaction.get());
+            return checkoutSession;
+        });
 
         // When
-        checkOutService.handleWebhookEvent(webhookRequest);
+        checkOutService.checkOut(checkOutRequest);
 
         // Then
-        assertEquals(PaymentStatus.PAID, testOrder.getStatus());
-        
-        verify(paymentGateway).parseWebhookRequest(webhookRequest);
-        verify(orderRepository).findById(1L);
-        verify(orderRepository).save(testOrder);
+        verify(orderRepository).save(any(Order.class));
+        verify(outboxService).publish(eq("order"), any(), eq(OrderEventType.ORDER_CHECKED_OUT.name()), any());
     }
 
     @Test
-    void handleWebhookEvent_WithEmptyPaymentResult_DoesNothing() {
+    void checkOut_WithUnexpectedGatewayFailure_DeletesOrderAndRethrows() {
         // Given
-        when(paymentGateway.parseWebhookRequest(webhookRequest)).thenReturn(Optional.empty());
+        runTransactions();
+        runTransactionsWithoutResult();
+        when(cartRepository.getCartWithItems(CART_TEST_UUID)).thenReturn(Optional.of(testCart));
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        when(paymentGateway.createCheckoutSession(any(Order.class))).thenThrow(new IllegalStateException("timeout"));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> checkOutService.checkOut(checkOutRequest));
+
+        verify(orderRepository).delete(any(Order.class));
+        verify(outboxService, never()).publish(any(), any(), eq(OrderEventType.ORDER_CHECKED_OUT.name()), any());
+    }
+
+    @Test
+    void checkOut_WithReplayedIdempotencyKey_ReturnsStoredResponseWithoutCheckingOutAgain() {
+        // Given
+        runTransactions();
+        runTransactionsWithoutResult();
+        when(authService.getCurrentUserId()).thenReturn(1L);
+        when(cartRepository.getCartWithItems(CART_TEST_UUID)).thenReturn(Optional.of(testCart));
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        when(paymentGateway.createCheckoutSession(any(Order.class))).thenReturn(checkoutSession);
+        var first = checkOutService.checkOut(checkOutRequest, "key-1");
+
+        // When
+        var replay = checkOutService.checkOut(checkOutRequest, "key-1");
+
+        // Then
+        assertSame(first, replay);
+        verify(cartRepository, times(1)).getCartWithItems(CART_TEST_UUID);
+        verify(authService, times(1)).getCurrentUser();
+        verify(orderRepository, times(1)).save(any(Order.class));
+        verify(paymentGateway, times(1)).createCheckoutSession(any(Order.class));
+        verify(outboxService, times(1)).publish(any(), any(), eq(OrderEventType.ORDER_CHECKED_OUT.name()), any());
+    }
+
+    @Test
+    void handleWebhookEvent_WithValidPaymentResult_EnqueuesWithoutTouchingOrders() {
+        // Given
+        when(paymentGateway.parseWebhookRequest(webhookRequest)).thenReturn(Optional.of(paymentResult));
 
         // When
         checkOutService.handleWebhookEvent(webhookRequest);
 
         // Then
         verify(paymentGateway).parseWebhookRequest(webhookRequest);
-        verify(orderRepository, never()).findById(anyLong());
-        verify(orderRepository, never()).save(any());
+        verify(paymentWebhookQueue).enqueue(paymentResult);
+        verifyNoInteractions(orderRepository, outboxService, transactionTemplate);
     }
 
     @Test
-    void handleWebhookEvent_VerifyOrderStatusUpdate() {
+    void handleWebhookEvent_WhenQueueIsFull_ThrowsWebhookQueueFullException() {
         // Given
-        ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
-        
         when(paymentGateway.parseWebhookRequest(webhookRequest)).thenReturn(Optional.of(paymentResult));
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        doThrow(new WebhookQueueFullException()).when(paymentWebhookQueue).enqueue(paymentResult);
+
+        // When & Then
+        assertThrows(WebhookQueueFullException.class, () -> checkOutService.handleWebhookEvent(webhookRequest));
+    }
+
+    @Test
+    void handleWebhookEvent_WithEmptyPaymentResult_DoesNothing() {
+        // Given
+        when(paymentGateway.parseWebhookRequest(webhookRequest)).thenReturn(Optional.empty());
 
         // When
         checkOutService.handleWebhookEvent(webhookRequest);
 
         // Then
-        verify(orderRepository).save(orderCaptor.capture());
-        Order savedOrder = orderCaptor.getValue();
-        
-        assertEquals(PaymentStatus.PAID, savedOrder.getStatus());
-        assertSame(testOrder, savedOrder);
+        verify(paymentGateway).parseWebhookRequest(webhookRequest);
+        verify(orderRepository, never()).findById(anyLong());
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(paymentWebhookQueue);
+    }
+
+    private void runTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private void runTransactionsWithoutResult() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
     }
-}
\ No newline at end of file
+}
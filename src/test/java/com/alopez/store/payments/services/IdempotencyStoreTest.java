@@ -0,0 +1,237 @@
+package com.alopez.store.payments.services;
+
+import com.alopez.store.payments.config.IdempotencyConfig;
+import com.alopez.store.payments.dtos.CheckOutResponse;
+import com.alopez.store.payments.exceptions.IdempotencyKeyInProgressException;
+import com.alopez.store.payments.exceptions.IdempotencyKeyReusedException;
+import com.alopez.store.payments.exceptions.InvalidIdempotencyKeyException;
+import com.alopez.store.payments.exceptions.PaymentException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+    private static final UUID CART_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    private IdempotencyConfig config;
+    private IdempotencyStore idempotencyStore;
+    private AtomicInteger checkOuts;
+
+    @BeforeEach
+    void setUp() {
+        config = new IdempotencyConfig();
+        idempotencyStore = new IdempotencyStore(config);
+        checkOuts = new AtomicInteger();
+    }
+
+    @Test
+    void execute_WithSameKey_ReplaysStoredResponse() {
+        // Given
+        var first = idempotencyStore.execute(1L, "key-1", CART_ID, this::checkOut);
+
+        // When
+        var second = idempotencyStore.execute(1L, "key-1", CART_ID, this::checkOut);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, checkOuts.get());
+    }
+
+    @Test
+    void execute_WithSameKeyForAnotherUser_RunsAgain() {
+        // When
+        idempotencyStore.execute(1L, "key-1", CART_ID, this::checkOut);
+        idempotencyStore.execute(2L, "key-1", CART_ID, this::checkOut);
+
+        // Then
+        assertEquals(2, checkOuts.get());
+    }
+
+    @Test
+    void execute_WithSameKeyForAnotherCart_ThrowsIdempotencyKeyReusedException() {
+        // Given
+        idempotencyStore.execute(1L, "key-1", CART_ID, this::checkOut);
+
+        // When & Then
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyStore.execute(1L, "key-1", UUID.randomUUID(), this::checkOut));
+        assertEquals(1, checkOuts.get());
+    }
+
+    @Test
+    void execute_WithBlankOrLongKey_ThrowsInvalidIdempotencyKeyException() {
+        // When & Then
+        assertThrows(InvalidIdempotencyKeyException.class,
+                () -> idempotencyStore.execute(1L, " ", CART_ID, this::checkOut));
+        assertThrows(InvalidIdempotencyKeyException.class,
+                () -> idempotencyStore.execute(1L, "k".repeat(256), CART_ID, this::checkOut));
+    }
+
+    @Test
+    void execute_AfterFailure_AllowsRetryWithSameKey() {
+        // Given
+        assertThrows(PaymentException.class, () -> idempotencyStore.execute(1L, "key-1", CART_ID, () -> {
+            throw new PaymentException("Payment processing failed");
+        }));
+
+        // When
+        var response = idempotencyStore.execute(1L, "key-1", CART_ID, this::checkOut);
+
+        // Then
+        assertEquals(1L, response.getOrderId());
+        assertEquals(1, checkOuts.get());
+    }
+
+    @Test
+    void execute_AfterError_AllowsRetryWithSameKey() {
+        // Given
+        assertThrows(StackOverflowError.class, () -> idempotencyStore.execute(1L, "key-1", CART_ID, () -> {
+            throw new StackOverflowError();
+        }));
+
+        // When
+        var response = idempotencyStore.execute(1L, "key-1", CART_ID, this::checkOut);
+
+        // Then
+        assertEquals(1L, response.getOrderId());
+        assertEquals(1, checkOuts.get());
+    }
+
+    @Test
+    void execute_AfterTtl_RunsAgain() {
+        // Given
+        config.setTtl(0);
+        idempotencyStore.execute(1L, "key-1", CART_ID, this::checkOut);
+
+        // When
+        idempotencyStore.execute(1L, "key-1", CART_ID, this::checkOut);
+
+        // Then
+        assertEquals(2, checkOuts.get());
+    }
+
+    @Test
+    void execute_OverMaxEntries_DropsOldestKeys() {
+        // Given
+        config.setMaxEntries(2);
+
+        // When
+        for (var i = 0; i < 5; i++) {
+            idempotencyStore.execute(1L, "key-" + i, CART_ID, this::checkOut);
+        }
+
+        // Then
+        assertEquals(2, idempotencyStore.size());
+    }
+
+    @Test
+    void execute_OverMaxEntries_KeepsKeysStillRunning() throws Exception {
+        // Given
+        config.setMaxEntries(1);
+        var release = new CountDownLatch(1);
+        var running = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var first = executor.submit(() -> idempotencyStore.execute(1L, "key-0", CART_ID, () -> {
+                running.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return checkOut();
+            }));
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+
+            // When
+            for (var i = 1; i < 5; i++) {
+                idempotencyStore.execute(1L, "key-" + i, CART_ID, this::checkOut);
+            }
+            var duplicate = executor.submit(() -> idempotencyStore.execute(1L, "key-0", CART_ID, this::checkOut));
+            release.countDown();
+
+            // Then
+            assertSame(first.get(10, TimeUnit.SECONDS), duplicate.get(10, TimeUnit.SECONDS));
+            assertEquals(5, checkOuts.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WhenFirstRequestOutlastsWaitTimeout_ThrowsIdempotencyKeyInProgressException() throws Exception {
+        // Given
+        config.setWaitTimeout(50);
+        var release = new CountDownLatch(1);
+        var running = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var first = executor.submit(() -> idempotencyStore.execute(1L, "key-1", CART_ID, () -> {
+                running.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return checkOut();
+            }));
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+
+            // When & Then
+            assertThrows(IdempotencyKeyInProgressException.class,
+                    () -> idempotencyStore.execute(1L, "key-1", CART_ID, this::checkOut));
+            release.countDown();
+            assertEquals(1L, first.get(10, TimeUnit.SECONDS).getOrderId());
+            assertEquals(1, checkOuts.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WithConcurrentDuplicates_RunsCheckOutOnce() throws Exception {
+        // Given
+        var threads = 8;
+        var release = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var futures = new ArrayList<Future<CheckOutResponse>>();
+            for (var i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> idempotencyStore.execute(1L, "key-1", CART_ID, () -> {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return checkOut();
+                })));
+            }
+
+            // When
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            var first = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (var future : futures) {
+                assertSame(first, future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, checkOuts.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CheckOutResponse checkOut() {
+        return new CheckOutResponse((long) checkOuts.incrementAndGet(), "https://checkout.example.com/session");
+    }
+}
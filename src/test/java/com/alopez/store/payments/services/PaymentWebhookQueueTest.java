@@ -0,0 +1,255 @@
+package com.alopez.store.payments.services;
+
+import com.alopez.store.orders.dtos.OrderEvent;
+import com.alopez.store.orders.dtos.OrderEventType;
+import com.alopez.store.orders.entities.PaymentStatus;
+import com.alopez.store.outbox.services.OutboxService;
+import com.alopez.store.payments.config.WebhookQueueConfig;
+import com.alopez.store.payments.dtos.PaymentResult;
+import com.alopez.store.payments.exceptions.WebhookQueueFullException;
+import com.alopez.store.payments.repositories.PaymentWebhookEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentWebhookQueueTest {
+
+    @Mock
+    private PaymentWebhookEventRepository paymentWebhookEventRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private WebhookEventLedger webhookEventLedger;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private WebhookQueueConfig config;
+
+    private PaymentWebhookQueue paymentWebhookQueue;
+
+    @BeforeEach
+    void setUp() {
+        config = new WebhookQueueConfig();
+        config.setMaxQueueDepth(2);
+        paymentWebhookQueue = new PaymentWebhookQueue(
+                paymentWebhookEventRepository, outboxService, webhookEventLedger, transactionTemplate, config);
+    }
+
+    @Test
+    void enqueue_InsertsEventAndTracksDepth() {
+        // Given
+        var paymentResult = new PaymentResult(1L, PaymentStatus.PAID);
+
+        // When
+        paymentWebhookQueue.enqueue(paymentResult);
+
+        // Then
+        verify(paymentWebhookEventRepository).insert(paymentResult);
+        assertEquals(1, paymentWebhookQueue.getStats().getQueueDepth());
+    }
+
+    @Test
+    void enqueue_AtMaxQueueDepth_ThrowsWebhookQueueFullException() {
+        // Given
+        paymentWebhookQueue.enqueue(new PaymentResult(1L, PaymentStatus.PAID));
+        paymentWebhookQueue.enqueue(new PaymentResult(2L, PaymentStatus.PAID));
+
+        // When & Then
+        assertThrows(WebhookQueueFullException.class,
+                () -> paymentWebhookQueue.enqueue(new PaymentResult(3L, PaymentStatus.PAID)));
+        verify(paymentWebhookEventRepository, times(2)).insert(any());
+        assertEquals(1, paymentWebhookQueue.getStats().getRejectedEvents());
+    }
+
+    @Test
+    void enqueue_WithNewEventId_RecordsItWithTheEvent() {
+        // Given
+        runTransactions();
+        var paymentResult = new PaymentResult(1L, PaymentStatus.PAID, "evt_1");
+        when(webhookEventLedger.record("evt_1")).thenReturn(true);
+
+        // When
+        paymentWebhookQueue.enqueue(paymentResult);
+
+        // Then
+        verify(paymentWebhookEventRepository).insert(paymentResult);
+        verify(webhookEventLedger).remember("evt_1");
+        assertEquals(1, paymentWebhookQueue.getStats().getEnqueuedEvents());
+    }
+
+    @Test
+    void enqueue_WithRecentEventId_DropsItWithoutWrites() {
+        // Given
+        when(webhookEventLedger.isRecent("evt_1")).thenReturn(true);
+
+        // When
+        paymentWebhookQueue.enqueue(new PaymentResult(1L, PaymentStatus.PAID, "evt_1"));
+
+        // Then
+        verifyNoInteractions(paymentWebhookEventRepository, transactionTemplate);
+        assertEquals(1, paymentWebhookQueue.getStats().getDuplicateEvents());
+    }
+
+    @Test
+    void enqueue_WithEventIdAlreadyInLedger_DoesNotInsertEvent() {
+        // Given
+        runTransactions();
+        when(webhookEventLedger.record("evt_1")).thenReturn(false);
+
+        // When
+        paymentWebhookQueue.enqueue(new PaymentResult(1L, PaymentStatus.PAID, "evt_1"));
+
+        // Then
+        verify(paymentWebhookEventRepository, never()).insert(any());
+        verify(webhookEventLedger).remember("evt_1");
+        assertEquals(0, paymentWebhookQueue.getStats().getQueueDepth());
+        assertEquals(1, paymentWebhookQueue.getStats().getDuplicateEvents());
+    }
+
+    @Test
+    void processBatch_AppliesStatusesForwardInOneUpdate() {
+        // Given
+        runTransactions();
+        when(paymentWebhookEventRepository.claim(anyString(), eq(0), eq(2), anyLong(), anyInt())).thenReturn(3);
+        when(paymentWebhookEventRepository.findClaimed(anyString())).thenReturn(List.of(
+                new PaymentResult(1L, PaymentStatus.FAILED),
+                new PaymentResult(2L, PaymentStatus.PAID),
+                new PaymentResult(1L, PaymentStatus.PAID)
+        ));
+        when(paymentWebhookEventRepository.lockOrders(any())).thenReturn(List.of(
+                order(1L, PaymentStatus.PENDING),
+                order(2L, PaymentStatus.PENDING)
+        ));
+
+        // When
+        var claimed = paymentWebhookQueue.processBatch(0);
+
+        // Then
+        assertEquals(3, claimed);
+        verify(paymentWebhookEventRepository, times(1))
+                .updateOrderStatuses(Map.of(1L, PaymentStatus.PAID, 2L, PaymentStatus.PAID));
+        verify(outboxService, times(2)).publish(eq(OrderEvent.AGGREGATE_TYPE), any(), eq(OrderEventType.ORDER_STATUS_CHANGED.name()), any());
+        verify(paymentWebhookEventRepository).deleteClaimed(anyString());
+        assertEquals(3, paymentWebhookQueue.getStats().getAppliedEvents());
+    }
+
+    @Test
+    void processBatch_WithUnchangedOrUnknownOrders_SkipsUpdate() {
+        // Given
+        runTransactions();
+        when(paymentWebhookEventRepository.claim(anyString(), eq(1), eq(2), anyLong(), anyInt())).thenReturn(2);
+        when(paymentWebhookEventRepository.findClaimed(anyString())).thenReturn(List.of(
+                new PaymentResult(1L, PaymentStatus.PAID),
+                new PaymentResult(3L, PaymentStatus.PAID)
+        ));
+        when(paymentWebhookEventRepository.lockOrders(any())).thenReturn(List.of(order(1L, PaymentStatus.PAID)));
+
+        // When
+        paymentWebhookQueue.processBatch(1);
+
+        // Then
+        verify(paymentWebhookEventRepository, never()).updateOrderStatuses(any());
+        verifyNoInteractions(outboxService);
+        verify(paymentWebhookEventRepository).deleteClaimed(anyString());
+        assertEquals(1, paymentWebhookQueue.getStats().getUnknownOrders());
+    }
+
+    @Test
+    void processBatch_WithLateFailureAfterPayment_KeepsPaid() {
+        // Given
+        runTransactions();
+        when(paymentWebhookEventRepository.claim(anyString(), eq(0), eq(2), anyLong(), anyInt())).thenReturn(2);
+        when(paymentWebhookEventRepository.findClaimed(anyString())).thenReturn(List.of(
+                new PaymentResult(1L, PaymentStatus.PAID),
+                new PaymentResult(1L, PaymentStatus.FAILED)
+        ));
+        when(paymentWebhookEventRepository.lockOrders(any())).thenReturn(List.of(order(1L, PaymentStatus.PENDING)));
+
+        // When
+        paymentWebhookQueue.processBatch(0);
+
+        // Then
+        verify(paymentWebhookEventRepository).updateOrderStatuses(Map.of(1L, PaymentStatus.PAID));
+        assertEquals(1, paymentWebhookQueue.getStats().getStaleEvents());
+    }
+
+    @Test
+    void processBatch_WithEmptyShard_DoesNotCountQueue() {
+        // Given
+        when(paymentWebhookEventRepository.claim(anyString(), eq(0), eq(2), anyLong(), anyInt())).thenReturn(0);
+
+        // When
+        var claimed = paymentWebhookQueue.processBatch(0);
+
+        // Then
+        assertEquals(0, claimed);
+        verify(paymentWebhookEventRepository, never()).count();
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void processBatch_WithClaimTakenOver_SkipsBatch() {
+        // Given
+        runTransactions();
+        when(paymentWebhookEventRepository.claim(anyString(), eq(0), eq(2), anyLong(), anyInt())).thenReturn(2);
+        when(paymentWebhookEventRepository.findClaimed(anyString())).thenReturn(List.of());
+
+        // When
+        var applied = paymentWebhookQueue.processBatch(0);
+
+        // Then
+        assertEquals(0, applied);
+        verify(paymentWebhookEventRepository, never()).lockOrders(any());
+        verify(paymentWebhookEventRepository, never()).deleteClaimed(anyString());
+        verifyNoInteractions(outboxService);
+        assertEquals(0, paymentWebhookQueue.getStats().getAppliedEvents());
+        assertEquals(0, paymentWebhookQueue.getStats().getBatches());
+    }
+
+    @Test
+    void resyncQueueDepth_SetsDepthFromTable() {
+        // Given
+        when(paymentWebhookEventRepository.count()).thenReturn(7L);
+
+        // When
+        paymentWebhookQueue.resyncQueueDepth();
+
+        // Then
+        assertEquals(7, paymentWebhookQueue.getStats().getQueueDepth());
+    }
+
+    private OrderEvent order(Long id, PaymentStatus status) {
+        return new OrderEvent(id, 1L, status, new BigDecimal("10.00"));
+    }
+
+    private void runTransactions() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+}
@@ -0,0 +1,70 @@
+package com.alopez.store.payments.services;
+
+import com.alopez.store.payments.config.WebhookLedgerConfig;
+import com.alopez.store.payments.repositories.PaymentWebhookEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookEventLedgerTest {
+
+    @Mock
+    private PaymentWebhookEventRepository paymentWebhookEventRepository;
+
+    private WebhookLedgerConfig config;
+
+    private WebhookEventLedger webhookEventLedger;
+
+    @BeforeEach
+    void setUp() {
+        config = new WebhookLedgerConfig();
+        config.setCacheSize(2);
+        config.setPruneChunkSize(10);
+        webhookEventLedger = new WebhookEventLedger(paymentWebhookEventRepository, config);
+    }
+
+    @Test
+    void isRecent_KeepsOnlyTheMostRecentlySeenIds() {
+        // Given
+        webhookEventLedger.remember("evt_1");
+        webhookEventLedger.remember("evt_2");
+        webhookEventLedger.isRecent("evt_1");
+
+        // When
+        webhookEventLedger.remember("evt_3");
+
+        // Then
+        assertTrue(webhookEventLedger.isRecent("evt_1"));
+        assertFalse(webhookEventLedger.isRecent("evt_2"));
+        assertTrue(webhookEventLedger.isRecent("evt_3"));
+        verifyNoInteractions(paymentWebhookEventRepository);
+    }
+
+    @Test
+    void record_WithIdAlreadyInTable_ReturnsFalse() {
+        // Given
+        when(paymentWebhookEventRepository.insertProcessedEvent("evt_1")).thenReturn(1, 0);
+
+        // When & Then
+        assertTrue(webhookEventLedger.record("evt_1"));
+        assertFalse(webhookEventLedger.record("evt_1"));
+    }
+
+    @Test
+    void prune_DeletesInChunksUntilAShortOne() {
+        // Given
+        when(paymentWebhookEventRepository.deleteProcessedEventsOlderThan(7, 10)).thenReturn(10, 10, 3);
+
+        // When
+        webhookEventLedger.prune();
+
+        // Then
+        verify(paymentWebhookEventRepository, times(3)).deleteProcessedEventsOlderThan(7, 10);
+    }
+}
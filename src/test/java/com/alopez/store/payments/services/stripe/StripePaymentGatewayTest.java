@@ -20,6 +20,7 @@ import com.stripe.param.checkout.SessionCreateParams;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -111,6 +112,31 @@ class StripePaymentGatewayTest {
         }
     }
 
+    @Test
+    void createCheckoutSession_WithUnevenDiscountedLine_SendsItAsOneUnitOfTheLineTotal() {
+        // Given
+        var discounted = testOrder.getItems().get(0);
+        discounted.setQuantity(3);
+        discounted.setTotalPrice(new BigDecimal("80.00"));
+        var captor = ArgumentCaptor.forClass(SessionCreateParams.class);
+
+        try (MockedStatic<Session> mockedSession = mockStatic(Session.class)) {
+            when(mockSession.getUrl()).thenReturn("https://checkout.stripe.com/session123");
+            mockedSession.when(() -> Session.create(captor.capture())).thenReturn(mockSession);
+
+            // When
+            stripePaymentGateway.createCheckoutSession(testOrder);
+
+            // Then
+            var lineItems = captor.getValue().getLineItems();
+            assertEquals(1L, lineItems.get(0).getQuantity());
+            assertEquals(0, new BigDecimal("8000").compareTo(lineItems.get(0).getPriceData().getUnitAmountDecimal()));
+            assertEquals("Test Product x 3", lineItems.get(0).getPriceData().getProductData().getName());
+            assertEquals(1L, lineItems.get(1).getQuantity());
+            assertEquals(0, new BigDecimal("4999").compareTo(lineItems.get(1).getPriceData().getUnitAmountDecimal()));
+        }
+    }
+
     @Test
     void createCheckoutSession_WithStripeException_ThrowsPaymentException() {
         // Given
@@ -139,6 +165,7 @@ class StripePaymentGatewayTest {
             )).thenReturn(mockEvent);
 
             when(mockEvent.getType()).thenReturn("payment_intent.succeeded");
+            when(mockEvent.getId()).thenReturn("evt_123");
             when(mockEvent.getDataObjectDeserializer()).thenReturn(mockDeserializer);
             when(mockDeserializer.getObject()).thenReturn(Optional.of(mockPaymentIntent));
             when(mockPaymentIntent.getMetadata()).thenReturn(Map.of("order_id", "1"));
@@ -151,6 +178,7 @@ class StripePaymentGatewayTest {
             assertTrue(result.isPresent());
             assertEquals(1L, result.get().getOrderId());
             assertEquals(PaymentStatus.PAID, result.get().getPaymentStatus());
+            assertEquals("evt_123", result.get().getEventId());
         }
     }
 
@@ -0,0 +1,71 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.dtos.Category;
+import com.alopez.store.products.dtos.CategoryDto;
+import com.alopez.store.products.repositories.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryRegistryTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private CategoryRegistry categoryRegistry;
+
+    @BeforeEach
+    void setUp() {
+        categoryRegistry = new CategoryRegistry(categoryRepository);
+        when(categoryRepository.findAll()).thenReturn(List.of(category((byte) 2, "Plantas"), category((byte) 1, "Flores")));
+        categoryRegistry.reload();
+    }
+
+    @Test
+    void getAll_ReturnsCategoriesOrderedById() {
+        // When
+        List<CategoryDto> result = categoryRegistry.getAll();
+
+        // Then
+        assertEquals(List.of((byte) 1, (byte) 2), result.stream().map(CategoryDto::getId).toList());
+        assertTrue(categoryRegistry.exists((byte) 2));
+        assertFalse(categoryRegistry.exists((byte) 3));
+        assertFalse(categoryRegistry.exists(null));
+    }
+
+    @Test
+    void create_AddsCategoryWithoutReloading() {
+        // Given
+        var etagBefore = categoryRegistry.getVersion().getEtag();
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> {
+            Category saved = invocation.getArgument(0);
+            saved.setId((byte) 3);
+            return saved;
+        });
+
+        // When
+        CategoryDto result = categoryRegistry.create(" Regalos ");
+
+        // Then
+        assertEquals("Regalos", result.getName());
+        assertEquals("Regalos", categoryRegistry.find((byte) 3).orElseThrow().getName());
+        assertNotEquals(etagBefore, categoryRegistry.getVersion().getEtag());
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    private static Category category(Byte id, String name) {
+        var category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+}
@@ -0,0 +1,200 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.ProductFacetConfig;
+import com.alopez.store.products.dtos.*;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFacetIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductLookup productLookup;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    private ProductFacetIndex productFacetIndex;
+
+    private Product roses;
+
+    @BeforeEach
+    void setUp() {
+        productFacetIndex = new ProductFacetIndex(productRepository, productLookup, productSearchIndex, new ProductFacetConfig());
+
+        roses = product(1L, (byte) 1, "45.00");
+        var tulips = product(2L, (byte) 1, "120.00");
+        var orchid = product(3L, (byte) 2, "60.00");
+
+        lenient().when(productLookup.findAllInOrder(any())).thenAnswer(invocation ->
+                invocation.<List<Long>>getArgument(0).stream().map(ProductFacetIndexTest::toDto).toList());
+        when(productRepository.findSummaries(null)).thenReturn(List.of(summary(orchid), summary(roses), summary(tulips)));
+        productFacetIndex.reload();
+    }
+
+    @Test
+    void query_WithoutFilter_ReturnsTotals() {
+        // When
+        ProductFacetsDto result = productFacetIndex.query(new ProductFilter(null, null, null, null), 10);
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), ids(result));
+        assertEquals(3, result.getTotalItems());
+        assertEquals(2, categoryCount(result, (byte) 1));
+        assertEquals(1, categoryCount(result, (byte) 2));
+        assertEquals(List.of(1L, 1L, 1L, 0L, 0L), bucketCounts(result));
+    }
+
+    @Test
+    void query_CategoryFacetIgnoresOwnFilter() {
+        // When
+        ProductFacetsDto result = productFacetIndex.query(new ProductFilter(Set.of((byte) 1), null, null, null), 10);
+
+        // Then
+        assertEquals(List.of(1L, 2L), ids(result));
+        assertEquals(2, categoryCount(result, (byte) 1));
+        assertEquals(1, categoryCount(result, (byte) 2));
+        assertEquals(List.of(1L, 0L, 1L, 0L, 0L), bucketCounts(result));
+    }
+
+    @Test
+    void query_WithPriceRange_NarrowsCategoryCounts() {
+        // When
+        ProductFacetsDto result = productFacetIndex.query(
+                new ProductFilter(null, new BigDecimal("50"), new BigDecimal("200"), null), 10);
+
+        // Then
+        assertEquals(List.of(2L, 3L), ids(result));
+        assertEquals(1, categoryCount(result, (byte) 1));
+        assertEquals(1, categoryCount(result, (byte) 2));
+        assertEquals(List.of(1L, 1L, 1L, 0L, 0L), bucketCounts(result));
+    }
+
+    @Test
+    void query_WithText_OnlyCountsMatchingProducts() {
+        // Given
+        when(productSearchIndex.matchingIds("rosa")).thenReturn(Set.of(1L));
+
+        // When
+        ProductFacetsDto result = productFacetIndex.query(new ProductFilter(null, null, null, "rosa"), 10);
+
+        // Then
+        assertEquals(List.of(1L), ids(result));
+        assertEquals(1, result.getTotalItems());
+        assertEquals(0, categoryCount(result, (byte) 2));
+    }
+
+    @Test
+    void query_RespectsLimitButCountsEverything() {
+        // When
+        ProductFacetsDto result = productFacetIndex.query(new ProductFilter(Set.of((byte) 1, (byte) 2), null, null, null), 1);
+
+        // Then
+        assertEquals(List.of(1L), ids(result));
+        assertEquals(3, result.getTotalItems());
+    }
+
+    @Test
+    void onProductSaved_MovesProductBetweenFacets() {
+        // Given
+        var category = new Category();
+        category.setId((byte) 2);
+        roses.setCategory(category);
+        roses.setPrice(new BigDecimal("300.00"));
+
+        // When
+        productFacetIndex.onProductSaved(roses, (byte) 1);
+
+        // Then
+        var result = productFacetIndex.query(new ProductFilter(null, null, null, null), 10);
+        assertEquals(1, categoryCount(result, (byte) 1));
+        assertEquals(2, categoryCount(result, (byte) 2));
+        assertEquals(List.of(0L, 1L, 1L, 1L, 0L), bucketCounts(result));
+    }
+
+    @Test
+    void onProductDeleted_RemovesProductFromCounts() {
+        // When
+        productFacetIndex.onProductDeleted(roses);
+
+        // Then
+        var result = productFacetIndex.query(new ProductFilter(null, null, null, null), 10);
+        assertEquals(List.of(2L, 3L), ids(result));
+        assertEquals(1, categoryCount(result, (byte) 1));
+    }
+
+    @Test
+    void reload_KeepsChangesMadeWhileReadingTheCatalog() {
+        // Given
+        var lilies = product(4L, (byte) 2, "80.00");
+        when(productRepository.findSummaries(null)).thenAnswer(invocation -> {
+            // Saved and deleted after the read below was taken, but before the new columns are swapped in.
+            productFacetIndex.onProductSaved(lilies, null);
+            productFacetIndex.onProductDeleted(roses);
+            return List.of(summary(roses));
+        });
+
+        // When
+        productFacetIndex.reload();
+
+        // Then
+        var result = productFacetIndex.query(new ProductFilter(null, null, null, null), 10);
+        assertEquals(List.of(4L), ids(result));
+        assertEquals(0, categoryCount(result, (byte) 1));
+        assertEquals(1, categoryCount(result, (byte) 2));
+    }
+
+    private static Product product(Long id, Byte categoryId, String price) {
+        var category = new Category();
+        category.setId(categoryId);
+
+        var product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(new BigDecimal(price));
+        product.setCategory(category);
+        return product;
+    }
+
+    private static ProductSummaryDto summary(Product product) {
+        return new ProductSummaryDto(product.getId(), product.getName(), product.getPrice(), product.getCategory().getId());
+    }
+
+    private static ProductDto toDto(Long id) {
+        var productDto = new ProductDto();
+        productDto.setId(id);
+        return productDto;
+    }
+
+    private static List<Long> ids(ProductFacetsDto facets) {
+        return facets.getItems().stream().map(ProductDto::getId).toList();
+    }
+
+    private static long categoryCount(ProductFacetsDto facets, Byte categoryId) {
+        return facets.getCategories().stream()
+                .filter(facet -> facet.getCategoryId().equals(categoryId))
+                .mapToLong(CategoryFacetDto::getCount)
+                .findFirst()
+                .orElse(0);
+    }
+
+    private static List<Long> bucketCounts(ProductFacetsDto facets) {
+        return facets.getPriceBuckets().stream().map(PriceBucketDto::getCount).toList();
+    }
+}
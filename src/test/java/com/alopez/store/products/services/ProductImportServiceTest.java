@@ -0,0 +1,220 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.ProductImportConfig;
+import com.alopez.store.products.dtos.ProductImportFormat;
+import com.alopez.store.products.dtos.ProductImportResultDto;
+import com.alopez.store.products.exceptions.InvalidImportException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CategoryRegistry categoryRegistry;
+
+    @Mock
+    private ProductChangeListener productChangeListener;
+
+    private ProductImportService productImportService;
+
+    private final List<List<Object[]>> insertedBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        var config = new ProductImportConfig();
+        config.setBatchSize(2);
+        config.setMaxReportedErrors(2);
+        productImportService = new ProductImportService(
+                jdbcTemplate, transactionTemplate, categoryRegistry, new ObjectMapper(), config, List.of(productChangeListener));
+
+        when(categoryRegistry.getIds()).thenReturn(Set.of((byte) 1));
+    }
+
+    @Test
+    void importProducts_WithCsv_InsertsInBatches() throws Exception {
+        // Given
+        recordBatches();
+        var csv = """
+                name,price,description,categoryId
+                Rosas,10.50,"Doce rosas, rojas",1
+                Tulipanes,8,"Tulipanes ""holandeses""
+                en ramo",1
+                Girasol,5.25,,1
+                """;
+
+        // When
+        ProductImportResultDto result = productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+
+        // Then
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getFailed());
+        assertEquals(2, insertedBatches.size());
+        assertArrayEquals(new Object[]{"Rosas", new BigDecimal("10.50"), "Doce rosas, rojas", (byte) 1}, insertedBatches.get(0).get(0));
+        assertEquals("Tulipanes \"holandeses\"\nen ramo", insertedBatches.get(0).get(1)[2]);
+        verify(productChangeListener).onCatalogChanged();
+    }
+
+    @Test
+    void importProducts_WithInvalidRows_ReportsLineNumbers() throws Exception {
+        // Given
+        recordBatches();
+        var csv = """
+                name,price,categoryId
+                Rosas,abc,1
+                Tulipanes,8,9
+                Girasol,5.25,1
+                ,1,1
+                """;
+
+        // When
+        ProductImportResultDto result = productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+
+        // Then
+        assertEquals(1, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(2, result.getErrors().size());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertEquals("Price is not a number", result.getErrors().get(0).getError());
+        assertEquals(3, result.getErrors().get(1).getLine());
+        assertTrue(result.isErrorsTruncated());
+    }
+
+    @Test
+    void importProducts_WithNdjson_InsertsValidLines() throws Exception {
+        // Given
+        recordBatches();
+        var ndjson = """
+                {"name":"Rosas","price":10.5,"description":"Rojas","categoryId":1}
+                {"name":"Tulipanes",
+                {"name":"Girasol","price":-1,"categoryId":1}
+                """;
+
+        // When
+        ProductImportResultDto result = productImportService.importProducts(stream(ndjson), ProductImportFormat.NDJSON);
+
+        // Then
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals("Invalid JSON", result.getErrors().get(0).getError());
+        assertEquals("Price must not be negative", result.getErrors().get(1).getError());
+    }
+
+    @Test
+    void importProducts_WithFailingBatch_ReportsEachFailingRow() throws Exception {
+        // Given
+        runTransactions();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            if ("Tulipanes".equals(invocation.getArgument(1))) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            return 1;
+        });
+        var csv = """
+                name,price,categoryId
+                Rosas,10,1
+                Tulipanes,8,1
+                """;
+
+        // When
+        ProductImportResultDto result = productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+
+        // Then
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertEquals("Could not insert the row", result.getErrors().get(0).getError());
+    }
+
+    @Test
+    void importProducts_WithOverlongNdjsonLine_SkipsOnlyThatLine() throws Exception {
+        // Given
+        recordBatches();
+        var ndjson = "\"" + "x".repeat(BoundedLineReader.MAX_LINE_LENGTH) + "\"\n"
+                + "{\"name\":\"Rosas\",\"price\":10,\"categoryId\":1}\n";
+
+        // When
+        ProductImportResultDto result = productImportService.importProducts(stream(ndjson), ProductImportFormat.NDJSON);
+
+        // Then
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getLine());
+        assertTrue(result.getErrors().get(0).getError().startsWith("Line is longer than"));
+    }
+
+    @Test
+    void importProducts_WithOverlongCsvRecord_SkipsItAndContinues() throws Exception {
+        // Given
+        recordBatches();
+        var csv = "name,price,categoryId\r\n"
+                + "Rosas,10,1\r\n"
+                + "\"" + "x".repeat(CsvRecordReader.MAX_RECORD_LENGTH) + "\nstill, \"\"quoted\"\"\",10,1\r\n"
+                + "\"Tulipanes, blancos\",12.50,1\r\n";
+
+        // When
+        ProductImportResultDto result = productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+
+        // Then
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertTrue(result.getErrors().get(0).getError().startsWith("Record is longer than"));
+        assertEquals("Tulipanes, blancos", insertedBatches.get(0).get(1)[0]);
+    }
+
+    @Test
+    void importProducts_WithoutRequiredColumns_ThrowsException() {
+        // When & Then
+        assertThrows(InvalidImportException.class,
+                () -> productImportService.importProducts(stream("name,price\nRosas,1\n"), ProductImportFormat.CSV));
+        verifyNoInteractions(jdbcTemplate, productChangeListener);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void recordBatches() {
+        runTransactions();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            insertedBatches.add(new ArrayList<>(invocation.<List<Object[]>>getArgument(1)));
+            return new int[0];
+        });
+    }
+
+    private void runTransactions() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,49 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.dtos.ProductDto;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductLookupTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductLookup productLookup;
+
+    @Test
+    void findAllInOrder_KeepsRequestedOrderAndSkipsMissingRows() {
+        // Given
+        when(productRepository.findDtosByIds(List.of(3L, 1L, 2L))).thenReturn(List.of(dto(1L), dto(3L)));
+
+        // When
+        var result = productLookup.findAllInOrder(List.of(3L, 1L, 2L));
+
+        // Then
+        assertEquals(List.of(3L, 1L), result.stream().map(ProductDto::getId).toList());
+    }
+
+    @Test
+    void findAllInOrder_WithoutIds_SkipsQuery() {
+        // When & Then
+        assertTrue(productLookup.findAllInOrder(List.of()).isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    private static ProductDto dto(Long id) {
+        return new ProductDto(id, "Product " + id, null, BigDecimal.TEN, null);
+    }
+}
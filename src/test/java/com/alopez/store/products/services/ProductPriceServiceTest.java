@@ -0,0 +1,116 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.ProductPriceChangeConfig;
+import com.alopez.store.products.dtos.BulkPriceChangeRequest;
+import com.alopez.store.products.dtos.BulkPriceChangeResultDto;
+import com.alopez.store.products.dtos.PriceChangeMode;
+import com.alopez.store.products.exceptions.InvalidPriceChangeException;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPriceServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ProductChangeListener productChangeListener;
+
+    private ProductPriceService productPriceService;
+
+    @BeforeEach
+    void setUp() {
+        var config = new ProductPriceChangeConfig();
+        config.setIdChunkSize(2);
+        productPriceService = new ProductPriceService(productRepository, transactionTemplate, config, List.of(productChangeListener));
+    }
+
+    @Test
+    void changePrices_ByCategoryPercentage_RunsOneUpdate() {
+        // Given
+        runTransactions();
+        when(productRepository.multiplyPricesByCategory(eq((byte) 1), eq(new BigDecimal("0.90")), any())).thenReturn(40);
+
+        // When
+        BulkPriceChangeResultDto result = productPriceService.changePrices(request(PriceChangeMode.PERCENTAGE, "-10", (byte) 1, null));
+
+        // Then
+        assertEquals(40, result.getUpdated());
+        verify(productChangeListener, times(1)).onCatalogChanged();
+    }
+
+    @Test
+    void changePrices_ByIds_UpdatesInChunks() {
+        // Given
+        runTransactions();
+        var delta = new BigDecimal("5");
+        when(productRepository.addToPricesByIds(List.of(1L, 2L), delta, new BigDecimal("99999999.99"))).thenReturn(2);
+        when(productRepository.addToPricesByIds(List.of(3L), delta, new BigDecimal("99999999.99"))).thenReturn(1);
+
+        // When
+        BulkPriceChangeResultDto result = productPriceService.changePrices(request(PriceChangeMode.ABSOLUTE, "5", null, List.of(1L, 2L, 2L, 3L)));
+
+        // Then
+        assertEquals(3, result.getUpdated());
+        verify(productChangeListener).onCatalogChanged();
+    }
+
+    @Test
+    void changePrices_WhenNothingChanges_DoesNotNotifyListeners() {
+        // Given
+        runTransactions();
+        when(productRepository.addToPricesByCategory(any(), any(), any())).thenReturn(0);
+
+        // When
+        productPriceService.changePrices(request(PriceChangeMode.ABSOLUTE, "-5", (byte) 1, null));
+
+        // Then
+        verifyNoInteractions(productChangeListener);
+    }
+
+    @Test
+    void changePrices_WithBothTargets_ThrowsException() {
+        assertThrows(InvalidPriceChangeException.class,
+                () -> productPriceService.changePrices(request(PriceChangeMode.ABSOLUTE, "5", (byte) 1, List.of(1L))));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void changePrices_WithPercentageBelowMinusHundred_ThrowsException() {
+        assertThrows(InvalidPriceChangeException.class,
+                () -> productPriceService.changePrices(request(PriceChangeMode.PERCENTAGE, "-150", (byte) 1, null)));
+        verifyNoInteractions(productRepository);
+    }
+
+    private void runTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static BulkPriceChangeRequest request(PriceChangeMode mode, String amount, Byte categoryId, List<Long> productIds) {
+        var request = new BulkPriceChangeRequest();
+        request.setMode(mode);
+        request.setAmount(new BigDecimal(amount));
+        request.setCategoryId(categoryId);
+        request.setProductIds(productIds);
+        return request;
+    }
+}
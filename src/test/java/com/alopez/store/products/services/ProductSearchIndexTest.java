@@ -0,0 +1,140 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.ProductSearchConfig;
+import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.dtos.ProductDto;
+import com.alopez.store.products.dtos.ProductTextDto;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductLookup productLookup;
+
+    private ProductSearchIndex productSearchIndex;
+
+    private Product roses;
+    private Product orchid;
+
+    @BeforeEach
+    void setUp() {
+        productSearchIndex = new ProductSearchIndex(productRepository, productLookup, new ProductSearchConfig());
+
+        roses = product(1L, "Ramo Clásico de Rosas Rojas", "Doce rosas rojas frescas con follaje.");
+        orchid = product(2L, "Orquídea Phalaenopsis Blanca", "Orquídea de interior, rosa pálido.");
+
+        lenient().when(productLookup.findAllInOrder(any())).thenAnswer(invocation ->
+                invocation.<List<Long>>getArgument(0).stream().map(ProductSearchIndexTest::toDto).toList());
+        lenient().when(productRepository.findTexts()).thenReturn(List.of(text(roses), text(orchid)));
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void search_WithPrefix_MatchesIgnoringAccents() {
+        // When
+        List<ProductDto> result = productSearchIndex.search("orqui", 10);
+
+        // Then
+        assertEquals(List.of(2L), ids(result));
+    }
+
+    @Test
+    void search_RanksNameMatchesAboveDescriptionMatches() {
+        // When
+        List<ProductDto> result = productSearchIndex.search("rosa", 10);
+
+        // Then
+        assertEquals(List.of(1L, 2L), ids(result));
+    }
+
+    @Test
+    void search_WithSeveralTerms_RequiresAllOfThem() {
+        // When
+        List<ProductDto> result = productSearchIndex.search("rosa blanca", 10);
+
+        // Then
+        assertEquals(List.of(2L), ids(result));
+    }
+
+    @Test
+    void onProductSaved_ReplacesPreviousTerms() {
+        // Given
+        orchid.setName("Girasol Fresco");
+        orchid.setDescription("Girasol brillante.");
+
+        // When
+        productSearchIndex.onProductSaved(orchid, null);
+
+        // Then
+        assertTrue(productSearchIndex.search("orquidea", 10).isEmpty());
+        assertEquals(List.of(2L), ids(productSearchIndex.search("girasol", 10)));
+    }
+
+    @Test
+    void onProductDeleted_RemovesProductFromResults() {
+        // When
+        productSearchIndex.onProductDeleted(roses);
+
+        // Then
+        assertEquals(List.of(2L), ids(productSearchIndex.search("rosa", 10)));
+    }
+
+    @Test
+    void rebuild_KeepsChangesMadeWhileReadingTheCatalog() {
+        // Given
+        var sunflower = product(3L, "Girasol Fresco", "Girasol brillante.");
+        when(productRepository.findTexts()).thenAnswer(invocation -> {
+            // Saved and deleted after the read below was taken, but before the new index is swapped in.
+            productSearchIndex.onProductSaved(sunflower, null);
+            productSearchIndex.onProductDeleted(roses);
+            return List.of(text(roses), text(orchid));
+        });
+
+        // When
+        productSearchIndex.rebuild();
+
+        // Then
+        assertEquals(List.of(3L), ids(productSearchIndex.search("girasol", 10)));
+        assertEquals(List.of(2L), ids(productSearchIndex.search("rosa", 10)));
+    }
+
+    private static Product product(Long id, String name, String description) {
+        var product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(BigDecimal.TEN);
+        return product;
+    }
+
+    private static ProductTextDto text(Product product) {
+        return new ProductTextDto(product.getId(), product.getName(), product.getDescription());
+    }
+
+    private static ProductDto toDto(Long id) {
+        var productDto = new ProductDto();
+        productDto.setId(id);
+        return productDto;
+    }
+
+    private static List<Long> ids(List<ProductDto> products) {
+        return products.stream().map(ProductDto::getId).toList();
+    }
+}
@@ -1,10 +1,20 @@
 
 package com.alopez.store.products.services;
 
+import com.alopez.store.products.config.CatalogCacheConfig;
+import com.alopez.store.products.config.ProductFacetConfig;
+import com.alopez.store.products.config.ProductPageConfig;
+import com.alopez.store.products.config.ProductSearchConfig;
+import com.alopez.store.products.config.ProductSuggestConfig;
 import com.alopez.store.products.dtos.Category;
 import com.alopez.store.products.dtos.ProductDto;
+import com.alopez.store.products.dtos.ProductSummaryDto;
 import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.dtos.ProductPageCursor;
+import com.alopez.store.products.dtos.ProductPageDto;
+import com.alopez.store.products.dtos.ProductSort;
 import com.alopez.store.products.exceptions.CategoryNotFoundException;
+import com.alopez.store.products.exceptions.InvalidPageRequestException;
 import com.alopez.store.products.exceptions.ProductNotFoundException;
 import com.alopez.store.products.mappers.ProductMapper;
 import com.alopez.store.products.repositories.CategoryRepository;
@@ -14,9 +24,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -34,18 +46,57 @@ class ProductServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CategoryRegistry categoryRegistry;
+
     @Mock
     private ProductMapper productMapper;
 
+    private CatalogCacheConfig catalogCacheConfig = new CatalogCacheConfig();
+
+    @Spy
+    private ProductCatalogCache productCatalogCache = new ProductCatalogCache(catalogCacheConfig);
+
+    @Spy
+    private ProductPageConfig productPageConfig = new ProductPageConfig();
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Spy
+    private ProductSearchConfig productSearchConfig = new ProductSearchConfig();
+
+    @Mock
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Spy
+    private ProductSuggestConfig productSuggestConfig = new ProductSuggestConfig();
+
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @Spy
+    private ProductFacetConfig productFacetConfig = new ProductFacetConfig();
+
+    @Mock
+    private ProductVersionTracker productVersionTracker;
+
+    @Spy
+    private List<ProductChangeListener> productChangeListeners = new ArrayList<>();
+
     @InjectMocks
     private ProductService productService;
 
     private Product testProduct;
     private ProductDto testProductDto;
+    private ProductSummaryDto testProductSummary;
     private Category testCategory;
 
     @BeforeEach
     void setUp() {
+        productChangeListeners.add(productCatalogCache);
+        productChangeListeners.add(productSearchIndex);
+
         testCategory = new Category();
         testCategory.setId((byte) 1);
         testCategory.setName("Electronics");
@@ -63,82 +114,214 @@ class ProductServiceTest {
         testProductDto.setDescription("Test Description");
         testProductDto.setPrice(new BigDecimal("99.99"));
         testProductDto.setCategoryId((byte) 1);
+
+        testProductSummary = new ProductSummaryDto(1L, "Test Product", new BigDecimal("99.99"), (byte) 1);
     }
 
     @Test
     void getAllProducts_WithCategoryId_ReturnsFilteredProducts() {
         // Given
         byte categoryId = 1;
-        List<Product> products = Collections.singletonList(testProduct);
-        when(productRepository.findByCategoryId(categoryId)).thenReturn(products);
-        when(productMapper.toDto(testProduct)).thenReturn(testProductDto);
+        when(productRepository.findSummaries(categoryId)).thenReturn(List.of(testProductSummary));
 
         // When
-        List<ProductDto> result = productService.getAllProducts(categoryId);
+        List<ProductSummaryDto> result = productService.getAllProducts(categoryId);
 
         // Then
-        assertEquals(1, result.size());
-        assertEquals(testProductDto, result.get(0));
-        verify(productRepository).findByCategoryId(categoryId);
+        assertEquals(List.of(testProductSummary), result);
+        verify(productRepository).findSummaries(categoryId);
         verify(productRepository, never()).findAllWithCategory();
-        verify(productMapper).toDto(testProduct);
+        verifyNoInteractions(productMapper);
     }
 
     @Test
     void getAllProducts_WithoutCategoryId_ReturnsAllProducts() {
         // Given
-        List<Product> products = Collections.singletonList(testProduct);
-        when(productRepository.findAllWithCategory()).thenReturn(products);
-        when(productMapper.toDto(testProduct)).thenReturn(testProductDto);
+        when(productRepository.findSummaries(null)).thenReturn(List.of(testProductSummary));
 
         // When
-        List<ProductDto> result = productService.getAllProducts(null);
+        List<ProductSummaryDto> result = productService.getAllProducts(null);
 
         // Then
-        assertEquals(1, result.size());
-        assertEquals(testProductDto, result.get(0));
-        verify(productRepository).findAllWithCategory();
-        verify(productRepository, never()).findByCategoryId(any());
-        verify(productMapper).toDto(testProduct);
+        assertEquals(List.of(testProductSummary), result);
+        verify(productRepository).findSummaries(null);
+        verifyNoInteractions(productMapper);
     }
 
     @Test
     void getAllProducts_WithEmptyResult_ReturnsEmptyList() {
         // Given
-        when(productRepository.findAllWithCategory()).thenReturn(Collections.emptyList());
+        when(productRepository.findSummaries(null)).thenReturn(Collections.emptyList());
 
         // When
-        List<ProductDto> result = productService.getAllProducts(null);
+        List<ProductSummaryDto> result = productService.getAllProducts(null);
 
         // Then
         assertTrue(result.isEmpty());
-        verify(productRepository).findAllWithCategory();
+        verify(productRepository).findSummaries(null);
     }
 
     @Test
-    void getProductById_WithExistingProduct_ReturnsProductDto() {
+    void getAllProducts_CalledTwice_ServesSecondCallFromCache() {
+        // Given
+        when(productRepository.findSummaries(null)).thenReturn(List.of(testProductSummary));
+
+        // When
+        productService.getAllProducts(null);
+        List<ProductSummaryDto> result = productService.getAllProducts(null);
+
+        // Then
+        assertEquals(List.of(testProductSummary), result);
+        verify(productRepository, times(1)).findSummaries(null);
+        assertEquals(1, productCatalogCache.getStats().getHits());
+        assertEquals(1, productCatalogCache.getStats().getMisses());
+    }
+
+    @Test
+    void getAllProducts_WithEntryOlderThanMaxAge_ReloadsListing() {
+        // Given
+        catalogCacheConfig.setMaxAge(0);
+        when(productRepository.findSummaries(null)).thenReturn(List.of(testProductSummary));
+
+        // When
+        productService.getAllProducts(null);
+        List<ProductSummaryDto> result = productService.getAllProducts(null);
+
+        // Then
+        assertEquals(List.of(testProductSummary), result);
+        verify(productRepository, times(2)).findSummaries(null);
+        assertEquals(0, productCatalogCache.getStats().getHits());
+        assertEquals(2, productCatalogCache.getStats().getMisses());
+    }
+
+    @Test
+    void updateProduct_InvalidatesCachedListings() {
+        // Given
+        byte categoryId = 1;
+        ProductDto updateRequest = new ProductDto();
+        updateRequest.setCategoryId(categoryId);
+
+        when(productRepository.findSummaries(null)).thenReturn(List.of(testProductSummary));
+        when(productRepository.findSummaries(categoryId)).thenReturn(List.of(testProductSummary));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(categoryRegistry.exists(categoryId)).thenReturn(true);
+        when(categoryRepository.getReferenceById(categoryId)).thenReturn(testCategory);
+
+        productService.getAllProducts(null);
+        productService.getAllProducts(categoryId);
+
+        // When
+        productService.updateProduct(1L, updateRequest);
+        productService.getAllProducts(null);
+        productService.getAllProducts(categoryId);
+
+        // Then
+        verify(productRepository, times(2)).findSummaries(null);
+        verify(productRepository, times(2)).findSummaries(categoryId);
+        verify(productCatalogCache).invalidate(categoryId, categoryId);
+    }
+
+    @Test
+    void getProductPage_WithMoreRowsThanPageSize_ReturnsNextCursor() {
+        // Given
+        ProductSummaryDto nextProduct = new ProductSummaryDto(2L, "Next Product", BigDecimal.TEN, (byte) 1);
+        when(productRepository.findPageOrderByIdAsc(isNull(), isNull(), any()))
+                .thenReturn(List.of(testProductSummary, nextProduct));
+
+        // When
+        ProductPageDto page = productService.getProductPage(null, null, 1, null, null);
+
+        // Then
+        assertEquals(List.of(testProductSummary), page.getItems());
+        assertEquals(1L, ProductPageCursor.decode(page.getNextCursor()).getId());
+    }
+
+    @Test
+    void getProductPage_WithPriceCursor_ContinuesAfterLastRow() {
+        // Given
+        String cursor = ProductPageCursor.after(testProductSummary, ProductSort.PRICE).encode();
+        when(productRepository.findPageOrderByPriceDesc(isNull(), eq(new BigDecimal("99.99")), eq(1L), any()))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        ProductPageDto page = productService.getProductPage(null, cursor, 10, "price", "desc");
+
+        // Then
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getProductPage_WithUnknownSort_ThrowsInvalidPageRequestException() {
+        assertThrows(InvalidPageRequestException.class,
+                () -> productService.getProductPage(null, null, 10, "rating", null));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void createProduct_NotifiesChangeListeners() {
+        // Given
+        ProductDto createRequest = new ProductDto();
+        createRequest.setCategoryId((byte) 1);
+        when(categoryRegistry.exists((byte) 1)).thenReturn(true);
+        when(categoryRepository.getReferenceById((byte) 1)).thenReturn(testCategory);
+        when(productMapper.toEntity(createRequest)).thenReturn(testProduct);
+
+        // When
+        productService.createProduct(createRequest);
+
+        // Then
+        verify(productSearchIndex).onProductSaved(testProduct, null);
+        verify(productCatalogCache).onProductSaved(testProduct, null);
+    }
+
+    @Test
+    void deleteProduct_NotifiesChangeListeners() {
         // Given
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(productMapper.toDto(testProduct)).thenReturn(testProductDto);
+
+        // When
+        productService.deleteProduct(1L);
+
+        // Then
+        verify(productSearchIndex).onProductDeleted(testProduct);
+        verify(productCatalogCache).onProductDeleted(testProduct);
+    }
+
+    @Test
+    void searchProducts_ClampsLimitAndDelegatesToIndex() {
+        // Given
+        when(productSearchIndex.search("rosa", 100)).thenReturn(List.of(testProductDto));
+
+        // When
+        List<ProductDto> result = productService.searchProducts("rosa", 1000);
+
+        // Then
+        assertEquals(List.of(testProductDto), result);
+    }
+
+    @Test
+    void getProductById_WithExistingProduct_ReturnsProductDto() {
+        // Given
+        when(productRepository.findDtoById(1L)).thenReturn(Optional.of(testProductDto));
 
         // When
         ProductDto result = productService.getProductById(1L);
 
         // Then
         assertEquals(testProductDto, result);
-        verify(productRepository).findById(1L);
-        verify(productMapper).toDto(testProduct);
+        verify(productRepository).findDtoById(1L);
+        verify(productRepository, never()).findById(any());
     }
 
     @Test
     void getProductById_WithNonExistingProduct_ThrowsProductNotFoundException() {
         // Given
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productRepository.findDtoById(1L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(ProductNotFoundException.class, () -> productService.getProductById(1L));
-        verify(productRepository).findById(1L);
-        verify(productMapper, never()).toDto(any());
+        verify(productRepository).findDtoById(1L);
     }
 
     @Test
@@ -155,7 +338,8 @@ class ProductServiceTest {
         newProduct.setDescription("New Description");
         newProduct.setPrice(new BigDecimal("149.99"));
 
-        when(categoryRepository.findById((byte) 1)).thenReturn(Optional.of(testCategory));
+        when(categoryRegistry.exists((byte) 1)).thenReturn(true);
+        when(categoryRepository.getReferenceById((byte) 1)).thenReturn(testCategory);
         when(productMapper.toEntity(createRequest)).thenReturn(newProduct);
         when(productRepository.save(newProduct)).thenAnswer(invocation -> {
             Product saved = invocation.getArgument(0);
@@ -170,7 +354,7 @@ class ProductServiceTest {
         assertNotNull(result);
         assertEquals(2L, result.getId());
         assertEquals("New Product", result.getName());
-        verify(categoryRepository).findById((byte) 1);
+        verify(categoryRegistry).exists((byte) 1);
         verify(productMapper).toEntity(createRequest);
         verify(productRepository).save(newProduct);
         assertEquals(testCategory, newProduct.getCategory());
@@ -182,11 +366,12 @@ class ProductServiceTest {
         ProductDto createRequest = new ProductDto();
         createRequest.setCategoryId((byte) 99);
 
-        when(categoryRepository.findById((byte) 99)).thenReturn(Optional.empty());
+        when(categoryRegistry.exists((byte) 99)).thenReturn(false);
 
         // When & Then
         assertThrows(CategoryNotFoundException.class, () -> productService.createProduct(createRequest));
-        verify(categoryRepository).findById((byte) 99);
+        verify(categoryRegistry).exists((byte) 99);
+        verify(categoryRepository, never()).getReferenceById(any());
         verify(productMapper, never()).toEntity(any());
         verify(productRepository, never()).save(any());
     }
@@ -201,7 +386,8 @@ class ProductServiceTest {
         updateRequest.setCategoryId((byte) 1);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(categoryRepository.findById((byte) 1)).thenReturn(Optional.of(testCategory));
+        when(categoryRegistry.exists((byte) 1)).thenReturn(true);
+        when(categoryRepository.getReferenceById((byte) 1)).thenReturn(testCategory);
 
         // When
         ProductDto result = productService.updateProduct(1L, updateRequest);
@@ -210,7 +396,7 @@ class ProductServiceTest {
         assertNotNull(result);
         assertEquals(1L, result.getId());
         verify(productRepository).findById(1L);
-        verify(categoryRepository).findById((byte) 1);
+        verify(categoryRegistry).exists((byte) 1);
         verify(productMapper).update(updateRequest, testProduct);
         verify(productRepository).save(testProduct);
         assertEquals(testCategory, testProduct.getCategory());
@@ -227,7 +413,7 @@ class ProductServiceTest {
         // When & Then
         assertThrows(ProductNotFoundException.class, () -> productService.updateProduct(1L, updateRequest));
         verify(productRepository).findById(1L);
-        verify(categoryRepository, never()).findById(any());
+        verify(categoryRegistry, never()).exists(any());
         verify(productMapper, never()).update(any(), any());
         verify(productRepository, never()).save(any());
     }
@@ -239,12 +425,13 @@ class ProductServiceTest {
         updateRequest.setCategoryId((byte) 99);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(categoryRepository.findById((byte) 99)).thenReturn(Optional.empty());
+        when(categoryRegistry.exists((byte) 99)).thenReturn(false);
 
         // When & Then
         assertThrows(CategoryNotFoundException.class, () -> productService.updateProduct(1L, updateRequest));
         verify(productRepository).findById(1L);
-        verify(categoryRepository).findById((byte) 99);
+        verify(categoryRegistry).exists((byte) 99);
+        verify(categoryRepository, never()).getReferenceById(any());
         verify(productMapper, never()).update(any(), any());
         verify(productRepository, never()).save(any());
     }
@@ -259,7 +446,8 @@ class ProductServiceTest {
         updateRequest.setCategoryId((byte) 1);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(categoryRepository.findById((byte) 1)).thenReturn(Optional.of(testCategory));
+        when(categoryRegistry.exists((byte) 1)).thenReturn(true);
+        when(categoryRepository.getReferenceById((byte) 1)).thenReturn(testCategory);
 
         // Mock the update method to actually update the testProduct
         doAnswer(invocation -> {
@@ -0,0 +1,147 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.ProductSuggestConfig;
+import com.alopez.store.products.dtos.Product;
+import com.alopez.store.products.dtos.ProductPopularity;
+import com.alopez.store.products.dtos.ProductSuggestionDto;
+import com.alopez.store.products.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSuggestIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSuggestIndex productSuggestIndex;
+
+    private Product redRoses;
+
+    @BeforeEach
+    void setUp() {
+        productSuggestIndex = new ProductSuggestIndex(productRepository, new ProductSuggestConfig());
+
+        redRoses = product(1L, "Ramo Clásico de Rosas Rojas");
+        var premiumRose = product(2L, "Rosa Roja Premium");
+        var sunflower = product(3L, "Girasol Fresco");
+
+        when(productRepository.findSuggestions()).thenReturn(List.of(suggestion(redRoses), suggestion(premiumRose), suggestion(sunflower)));
+        when(productRepository.countOrderItemsByProduct()).thenReturn(List.of(popularity(2L, 5L)));
+        productSuggestIndex.reload();
+    }
+
+    @Test
+    void suggest_MatchesAnyWordStartRankedByPopularity() {
+        // When
+        List<ProductSuggestionDto> result = productSuggestIndex.suggest("ros", 10);
+
+        // Then
+        assertEquals(List.of(2L, 1L), ids(result));
+    }
+
+    @Test
+    void suggest_WithMultiWordPrefix_NarrowsResults() {
+        // When
+        List<ProductSuggestionDto> result = productSuggestIndex.suggest("rosas roj", 10);
+
+        // Then
+        assertEquals(List.of(1L), ids(result));
+    }
+
+    @Test
+    void suggest_RespectsLimit() {
+        // When
+        List<ProductSuggestionDto> result = productSuggestIndex.suggest("r", 1);
+
+        // Then
+        assertEquals(List.of(2L), ids(result));
+    }
+
+    @Test
+    void suggest_WithUnknownPrefix_ReturnsEmpty() {
+        assertTrue(productSuggestIndex.suggest("tulip", 10).isEmpty());
+        assertTrue(productSuggestIndex.suggest("  ", 10).isEmpty());
+    }
+
+    @Test
+    void onProductSaved_ReplacesPreviousNameOnNextRebuild() {
+        // Given
+        redRoses.setName("Tulipanes Amarillos");
+
+        // When
+        productSuggestIndex.onProductSaved(redRoses, null);
+
+        // Then
+        assertEquals(List.of(2L, 1L), ids(productSuggestIndex.suggest("ros", 10)));
+        productSuggestIndex.rebuildIfStale();
+        assertEquals(List.of(2L), ids(productSuggestIndex.suggest("ros", 10)));
+        assertEquals(List.of(1L), ids(productSuggestIndex.suggest("tuli", 10)));
+    }
+
+    @Test
+    void onProductDeleted_RemovesSuggestion() {
+        // When
+        productSuggestIndex.onProductDeleted(redRoses);
+        productSuggestIndex.rebuildIfStale();
+
+        // Then
+        assertEquals(List.of(2L), ids(productSuggestIndex.suggest("ros", 10)));
+    }
+
+    @Test
+    void reload_KeepsChangesMadeWhileReadingTheCatalog() {
+        // Given
+        var tulip = product(4L, "Tulipán Rosado");
+        when(productRepository.findSuggestions()).thenAnswer(invocation -> {
+            // Saved and deleted after the read below was taken, but before it replaces the names.
+            productSuggestIndex.onProductSaved(tulip, null);
+            productSuggestIndex.onProductDeleted(redRoses);
+            return List.of(suggestion(redRoses));
+        });
+
+        // When
+        productSuggestIndex.reload();
+
+        // Then
+        assertEquals(List.of(4L), ids(productSuggestIndex.suggest("tul", 10)));
+        assertTrue(productSuggestIndex.suggest("ramo", 10).isEmpty());
+    }
+
+    private static Product product(Long id, String name) {
+        var product = new Product();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+
+    private static ProductSuggestionDto suggestion(Product product) {
+        return new ProductSuggestionDto(product.getId(), product.getName());
+    }
+
+    private static ProductPopularity popularity(Long productId, Long orderCount) {
+        return new ProductPopularity() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getOrderCount() {
+                return orderCount;
+            }
+        };
+    }
+
+    private static List<Long> ids(List<ProductSuggestionDto> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDto::getId).toList();
+    }
+}
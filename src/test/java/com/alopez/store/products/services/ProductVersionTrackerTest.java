@@ -0,0 +1,93 @@
+package com.alopez.store.products.services;
+
+import com.alopez.store.products.config.ProductVersionConfig;
+import com.alopez.store.products.dtos.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductVersionTrackerTest {
+
+    private ProductVersionConfig config;
+    private ProductVersionTracker productVersionTracker;
+
+    @BeforeEach
+    void setUp() {
+        config = new ProductVersionConfig();
+        productVersionTracker = new ProductVersionTracker(config);
+    }
+
+    @Test
+    void onProductSaved_ChangesProductAndCatalogTagsOnly() {
+        // Given
+        var catalogBefore = productVersionTracker.catalogVersion(null).getEtag();
+        var savedBefore = productVersionTracker.productVersion(1L).getEtag();
+        var otherBefore = productVersionTracker.productVersion(2L).getEtag();
+
+        // When
+        productVersionTracker.onProductSaved(product(1L), null);
+
+        // Then
+        assertNotEquals(catalogBefore, productVersionTracker.catalogVersion(null).getEtag());
+        assertNotEquals(savedBefore, productVersionTracker.productVersion(1L).getEtag());
+        assertEquals(otherBefore, productVersionTracker.productVersion(2L).getEtag());
+    }
+
+    @Test
+    void onProductDeleted_ChangesProductTag() {
+        // Given
+        var before = productVersionTracker.productVersion(1L).getEtag();
+
+        // When
+        productVersionTracker.onProductDeleted(product(1L));
+
+        // Then
+        assertNotEquals(before, productVersionTracker.productVersion(1L).getEtag());
+    }
+
+    @Test
+    void onCatalogChanged_ChangesEveryTag() {
+        // Given
+        productVersionTracker.onProductSaved(product(1L), null);
+        var savedBefore = productVersionTracker.productVersion(1L).getEtag();
+        var otherBefore = productVersionTracker.productVersion(2L).getEtag();
+
+        // When
+        productVersionTracker.onCatalogChanged();
+
+        // Then
+        assertNotEquals(savedBefore, productVersionTracker.productVersion(1L).getEtag());
+        assertNotEquals(otherBefore, productVersionTracker.productVersion(2L).getEtag());
+    }
+
+    @Test
+    void catalogVersion_DiffersPerCategory() {
+        assertNotEquals(
+                productVersionTracker.catalogVersion(null).getEtag(),
+                productVersionTracker.catalogVersion((byte) 1).getEtag());
+    }
+
+    @Test
+    void productVersion_OlderThanMaxAge_ChangesEveryTag() {
+        // Given
+        productVersionTracker.onProductSaved(product(1L), null);
+        var savedBefore = productVersionTracker.productVersion(1L).getEtag();
+        var otherBefore = productVersionTracker.productVersion(2L).getEtag();
+        var catalogBefore = productVersionTracker.catalogVersion(null).getEtag();
+
+        // When
+        config.setMaxAge(0);
+
+        // Then
+        assertNotEquals(savedBefore, productVersionTracker.productVersion(1L).getEtag());
+        assertNotEquals(otherBefore, productVersionTracker.productVersion(2L).getEtag());
+        assertNotEquals(catalogBefore, productVersionTracker.catalogVersion(null).getEtag());
+    }
+
+    private static Product product(Long id) {
+        var product = new Product();
+        product.setId(id);
+        return product;
+    }
+}